@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.benchmarks;
+
+import com.google.gson.Gson;
+import org.cfg4j.benchmarks.model.CatalogConfig;
+import org.cfg4j.binder.TreeBinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding a parsed tree with {@link TreeBinder} compared to the Gson JSON string round-trip it replaced. Run with
+ * {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinderBenchmark {
+
+  @Param({"1", "100", "10000"})
+  public int entries;
+
+  private Map<String, Object> tree;
+  private TreeBinder binder;
+
+  @Setup
+  public void setUp() {
+    tree = SyntheticConfig.catalog(entries);
+    binder = new TreeBinder();
+  }
+
+  @Benchmark
+  public CatalogConfig gsonRoundTrip() {
+    Gson gson = new Gson();
+    String json = gson.toJson(tree);
+    return gson.fromJson(json, CatalogConfig.class);
+  }
+
+  @Benchmark
+  public CatalogConfig treeBinder() {
+    return binder.bind(tree, CatalogConfig.class);
+  }
+}
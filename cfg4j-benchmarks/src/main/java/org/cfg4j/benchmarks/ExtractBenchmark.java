@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.benchmarks;
+
+import org.cfg4j.benchmarks.model.ServiceConfig;
+import org.cfg4j.provider.ConfigHandle;
+import org.cfg4j.provider.ConfigurationProvider;
+import org.cfg4j.provider.ConfigurationProviderBuilder;
+import org.cfg4j.source.ConfigurationSource.ConfigurationState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConfigurationProvider#extract(Class)} and {@link ConfigHandle#get()} throughput with a single thread and
+ * with all available cores. Use JMH's {@code -t} option for other thread counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractBenchmark {
+
+  private ConfigurationProvider provider;
+  private ConfigHandle<ServiceConfig> handle;
+
+  @Setup
+  public void setUp() {
+    Properties properties = new Properties();
+    properties.put("service", SyntheticConfig.service(1));
+
+    ConfigurationState state = new ConfigurationState(Collections.singletonMap("application.yaml", properties), true);
+
+    provider = new ConfigurationProviderBuilder()
+        .withConfigurationSource(new StaticConfigurationSource(state))
+        .withBasePathToConfigMetaClasses("org.cfg4j.benchmarks.model")
+        .build();
+    handle = provider.handle(ServiceConfig.class);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public ServiceConfig extract() {
+    return provider.extract(ServiceConfig.class);
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public ServiceConfig extractContended() {
+    return provider.extract(ServiceConfig.class);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public ServiceConfig handle() {
+    return handle.get();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public ServiceConfig handleContended() {
+    return handle.get();
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.benchmarks;
+
+import org.cfg4j.source.ConfigurationSource;
+import org.cfg4j.source.ConfigurationSource.ConfigurationState;
+import org.cfg4j.source.compose.MergeConfigurationSource;
+import org.cfg4j.source.context.environment.DefaultEnvironment;
+import org.cfg4j.source.context.environment.Environment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MergeConfigurationSource#getConfiguration(Environment)} cost across many underlying sources. Each source
+ * contributes its own files plus a shared one, so collisions are part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeBenchmark {
+
+  private static final int FILES_PER_SOURCE = 4;
+
+  @Param({"2", "8", "32", "128"})
+  public int sources;
+
+  private MergeConfigurationSource mergeConfigurationSource;
+  private Environment environment;
+
+  @Setup
+  public void setUp() {
+    ConfigurationSource[] underlyingSources = new ConfigurationSource[sources];
+    for (int i = 0; i < sources; i++) {
+      Map<String, Properties> files = new HashMap<>();
+      files.put("application.yaml", file(i));
+      for (int f = 0; f < FILES_PER_SOURCE; f++) {
+        files.put("source" + i + "-file" + f + ".yaml", file(f));
+      }
+      underlyingSources[i] = new StaticConfigurationSource(new ConfigurationState(files, true));
+    }
+
+    mergeConfigurationSource = new MergeConfigurationSource(underlyingSources);
+    mergeConfigurationSource.init();
+    environment = new DefaultEnvironment();
+  }
+
+  @Benchmark
+  public ConfigurationState merge() {
+    return mergeConfigurationSource.getConfiguration(environment);
+  }
+
+  private Properties file(int seed) {
+    Properties properties = new Properties();
+    properties.put("service", SyntheticConfig.service(seed));
+    return properties;
+  }
+}
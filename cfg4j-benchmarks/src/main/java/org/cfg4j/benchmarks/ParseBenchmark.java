@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.benchmarks;
+
+import org.cfg4j.source.context.propertiesprovider.JsonBasedPropertiesProvider;
+import org.cfg4j.source.context.propertiesprovider.PropertiesProvider;
+import org.cfg4j.source.context.propertiesprovider.PropertyBasedPropertiesProvider;
+import org.cfg4j.source.context.propertiesprovider.YamlBasedPropertiesProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse cost of {@link PropertiesProvider}s on synthetic documents from 1KB to 50MB. All values are read after
+ * parsing, so the cost of constructing values lazily (YAML) is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParseBenchmark {
+
+  @Param({"yaml", "json", "json-structured", "properties"})
+  public String format;
+
+  @Param({"1024", "65536", "1048576", "52428800"})
+  public int size;
+
+  private PropertiesProvider provider;
+  private byte[] document;
+
+  @Setup
+  public void setUp() {
+    String text;
+    switch (format) {
+      case "yaml":
+        provider = new YamlBasedPropertiesProvider();
+        text = SyntheticConfig.yaml(size);
+        break;
+      case "json":
+        provider = new JsonBasedPropertiesProvider();
+        text = SyntheticConfig.json(size);
+        break;
+      case "json-structured":
+        provider = new JsonBasedPropertiesProvider(false);
+        text = SyntheticConfig.json(size);
+        break;
+      case "properties":
+        provider = new PropertyBasedPropertiesProvider();
+        text = SyntheticConfig.properties(size);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown format: " + format);
+    }
+
+    document = text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public Properties parse() {
+    Properties properties = provider.getProperties(new ByteArrayInputStream(document));
+    properties.values();
+    return properties;
+  }
+}
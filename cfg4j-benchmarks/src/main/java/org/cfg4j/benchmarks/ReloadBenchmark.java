@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.benchmarks;
+
+import com.codahale.metrics.MetricRegistry;
+import org.cfg4j.source.ConfigurationDataWrapper.ConfigMetaInfo;
+import org.cfg4j.source.ConfigurationSource.ConfigurationState;
+import org.cfg4j.source.context.environment.DefaultEnvironment;
+import org.cfg4j.source.context.environment.Environment;
+import org.cfg4j.source.reload.CachedConfigurationSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CachedConfigurationSource#reload(Environment)} cost as a function of the number of bound classes. With
+ * {@code changed=true} every reload alternates between two different documents so that all classes are rebound,
+ * with {@code changed=false} the source returns equal (but freshly built) documents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReloadBenchmark {
+
+  private static final String FILE_NAME = "application.yaml";
+
+  @Param({"10", "100", "1000", "10000"})
+  public int classes;
+
+  @Param({"true", "false"})
+  public boolean changed;
+
+  private CachedConfigurationSource cachedConfigurationSource;
+  private Environment environment;
+
+  @Setup
+  public void setUp() throws ClassNotFoundException {
+    Map<Class<?>, ConfigMetaInfo> configMetaData = new HashMap<>();
+    for (int i = 0; i < classes; i++) {
+      configMetaData.put(Class.forName("org.cfg4j.benchmarks.generated.Config" + i), new ConfigMetaInfo("config" + i, FILE_NAME));
+    }
+
+    StaticConfigurationSource source = new StaticConfigurationSource(state(0), state(changed ? 1 : 0));
+
+    cachedConfigurationSource = new CachedConfigurationSource(source, configMetaData, new MetricRegistry(), "");
+    environment = new DefaultEnvironment();
+    cachedConfigurationSource.reload(environment);
+  }
+
+  @Benchmark
+  public void reload() {
+    cachedConfigurationSource.reload(environment);
+  }
+
+  private ConfigurationState state(int offset) {
+    Properties properties = new Properties();
+    for (int i = 0; i < classes; i++) {
+      properties.put("config" + i, SyntheticConfig.service(i + offset));
+    }
+
+    return new ConfigurationState(Collections.singletonMap(FILE_NAME, properties), true);
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.benchmarks;
+
+import static java.util.Objects.requireNonNull;
+
+import org.cfg4j.source.ConfigurationSource;
+import org.cfg4j.source.context.environment.Environment;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ConfigurationSource} cycling through a fixed set of pre-built states. Keeps source cost out of the
+ * measurements.
+ */
+class StaticConfigurationSource implements ConfigurationSource {
+
+  private final ConfigurationState[] states;
+  private final AtomicInteger next;
+
+  StaticConfigurationSource(ConfigurationState... states) {
+    this.states = requireNonNull(states);
+    this.next = new AtomicInteger();
+  }
+
+  @Override
+  public ConfigurationState getConfiguration(Environment environment) {
+    return states[(next.getAndIncrement() & Integer.MAX_VALUE) % states.length];
+  }
+
+  @Override
+  public void init() {
+    // NOP
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates synthetic configuration trees and documents for benchmarks.
+ */
+public final class SyntheticConfig {
+
+  private SyntheticConfig() {
+  }
+
+  /**
+   * Parsed tree of a single service entry. Equal {@code seed}s produce equal (but not identical) trees.
+   *
+   * @param seed value used to vary the content
+   * @return tree shaped like {@link org.cfg4j.benchmarks.model.ServiceConfig}
+   */
+  public static Map<String, Object> service(int seed) {
+    Map<String, Object> limits = new LinkedHashMap<>();
+    limits.put("read", 10 + seed % 7);
+    limits.put("write", 20 + seed % 5);
+
+    Map<String, Object> service = new LinkedHashMap<>();
+    service.put("host", "host-" + seed + ".example.com");
+    service.put("port", 8000 + seed % 1000);
+    service.put("timeout", 250);
+    service.put("ratio", 0.75);
+    service.put("enabled", seed % 2 == 0);
+    service.put("tags", Arrays.asList("tag-a", "tag-b", "tag-" + seed));
+    service.put("limits", limits);
+    return service;
+  }
+
+  /**
+   * Parsed tree of a catalog of {@code entries} services.
+   *
+   * @param entries number of services
+   * @return tree shaped like {@link org.cfg4j.benchmarks.model.CatalogConfig}
+   */
+  public static Map<String, Object> catalog(int entries) {
+    List<Object> services = new ArrayList<>(entries);
+    Map<String, Object> byHost = new LinkedHashMap<>();
+
+    for (int i = 0; i < entries; i++) {
+      Map<String, Object> service = service(i);
+      services.add(service);
+      byHost.put((String) service.get("host"), service(i));
+    }
+
+    Map<String, Object> catalog = new LinkedHashMap<>();
+    catalog.put("name", "catalog-" + entries);
+    catalog.put("services", services);
+    catalog.put("byHost", byHost);
+    return catalog;
+  }
+
+  /**
+   * YAML document of roughly {@code targetBytes} size.
+   *
+   * @param targetBytes minimal document size
+   * @return document text
+   */
+  public static String yaml(int targetBytes) {
+    StringBuilder document = new StringBuilder(targetBytes + 256);
+
+    for (int i = 0; document.length() < targetBytes; i++) {
+      document.append("service").append(i).append(":\n")
+          .append("  host: host-").append(i).append(".example.com\n")
+          .append("  port: ").append(8000 + i % 1000).append('\n')
+          .append("  enabled: ").append(i % 2 == 0).append('\n')
+          .append("  tags:\n")
+          .append("    - tag-a\n")
+          .append("    - tag-").append(i).append('\n')
+          .append("  limits:\n")
+          .append("    read: ").append(10 + i % 7).append('\n')
+          .append("    write: ").append(20 + i % 5).append('\n');
+    }
+
+    return document.toString();
+  }
+
+  /**
+   * JSON document of roughly {@code targetBytes} size.
+   *
+   * @param targetBytes minimal document size
+   * @return document text
+   */
+  public static String json(int targetBytes) {
+    StringBuilder document = new StringBuilder(targetBytes + 256).append('{');
+
+    for (int i = 0; document.length() < targetBytes; i++) {
+      if (i > 0) {
+        document.append(',');
+      }
+      document.append("\"service").append(i).append("\":{")
+          .append("\"host\":\"host-").append(i).append(".example.com\",")
+          .append("\"port\":").append(8000 + i % 1000).append(',')
+          .append("\"enabled\":").append(i % 2 == 0).append(',')
+          .append("\"tags\":[\"tag-a\",\"tag-").append(i).append("\"],")
+          .append("\"limits\":{\"read\":").append(10 + i % 7).append(",\"write\":").append(20 + i % 5).append("}}");
+    }
+
+    return document.append('}').toString();
+  }
+
+  /**
+   * Properties document of roughly {@code targetBytes} size.
+   *
+   * @param targetBytes minimal document size
+   * @return document text
+   */
+  public static String properties(int targetBytes) {
+    StringBuilder document = new StringBuilder(targetBytes + 256);
+
+    for (int i = 0; document.length() < targetBytes; i++) {
+      String prefix = "service" + i + ".";
+      document.append(prefix).append("host=host-").append(i).append(".example.com\n")
+          .append(prefix).append("port=").append(8000 + i % 1000).append('\n')
+          .append(prefix).append("enabled=").append(i % 2 == 0).append('\n')
+          .append(prefix).append("tags=tag-a,tag-").append(i).append('\n')
+          .append(prefix).append("limits.read=").append(10 + i % 7).append('\n')
+          .append(prefix).append("limits.write=").append(20 + i % 5).append('\n');
+    }
+
+    return document.toString();
+  }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.benchmarks.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Larger bound class shaped after {@link org.cfg4j.benchmarks.SyntheticConfig#catalog(int)} subtrees.
+ */
+public class CatalogConfig {
+  public String name;
+  public List<ServiceConfig> services;
+  public Map<String, ServiceConfig> byHost;
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.benchmarks.model;
+
+import org.cfg4j.provider.ConfigMeta;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bound class shaped after {@link org.cfg4j.benchmarks.SyntheticConfig#service(int)} subtrees.
+ */
+@ConfigMeta(configKey = "service", bindedFileName = "application.yaml")
+public class ServiceConfig {
+  public String host;
+  public int port;
+  public long timeout;
+  public double ratio;
+  public boolean enabled;
+  public List<String> tags;
+  public Map<String, Integer> limits;
+}
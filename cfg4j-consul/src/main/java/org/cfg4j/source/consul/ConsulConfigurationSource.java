@@ -20,48 +20,86 @@ import static java.util.Objects.requireNonNull;
 import com.google.common.net.HostAndPort;
 import com.orbitz.consul.Consul;
 import com.orbitz.consul.KeyValueClient;
-import com.orbitz.consul.model.kv.Value;
 import org.cfg4j.source.ConfigurationSource;
 import org.cfg4j.source.SourceCommunicationException;
+import org.cfg4j.source.WatchableConfigurationSource;
 import org.cfg4j.source.context.environment.Environment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Note: use {@link ConsulConfigurationSourceBuilder} for building instances of this class.
  * <p>
- * Read configuration from the Consul K-V store.
+ * Read configuration from the Consul K-V store. Keys of each environment requested via
+ * {@link #getConfiguration(Environment)} are queried once and then watched in the background using Consul blocking
+ * queries, so {@link #getConfiguration(Environment)} doesn't contact Consul unless a new environment is requested.
+ * Registered {@link ChangeListener}s are notified whenever keys of a watched environment change. Call
+ * {@link #close()} to stop watching.
  */
-public class ConsulConfigurationSource implements ConfigurationSource {
+public class ConsulConfigurationSource implements WatchableConfigurationSource, Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(ConsulConfigurationSource.class);
+  private static final long READ_TIMEOUT_MARGIN_MILLIS = 5000;
 
   private KeyValueClient kvClient;
-  private Map<String, String> consulValues;
+  private ScheduledExecutorService scheduler;
   private final String host;
   private final int port;
-  private boolean initialized;
+  private final int blockingQueryWaitSeconds;
+  private final List<ChangeListener> listeners;
+  private final ConcurrentMap<String, ConsulPrefixWatch> watches;
+  private final ConcurrentMap<String, ConsulPrefixWatch.Snapshot> lastReturned;
+  private volatile boolean initialized;
 
   /**
    * Note: use {@link ConsulConfigurationSourceBuilder} for building instances of this class.
    * <p>
    * Read configuration from the Consul K-V store located at {@code host}:{@code port}.
    *
-   * @param host Consul host to connect to
-   * @param port Consul port to connect to
+   * @param host                     Consul host to connect to
+   * @param port                     Consul port to connect to
+   * @param blockingQueryWaitSeconds maximum time (in seconds) a single blocking query waits for changes
    */
-  ConsulConfigurationSource(String host, int port) {
+  ConsulConfigurationSource(String host, int port, int blockingQueryWaitSeconds) {
     this.host = requireNonNull(host);
     this.port = port;
+    this.blockingQueryWaitSeconds = blockingQueryWaitSeconds;
 
+    if (blockingQueryWaitSeconds <= 0) {
+      throw new IllegalArgumentException("Blocking query wait time has to be positive: " + blockingQueryWaitSeconds);
+    }
+
+    listeners = new CopyOnWriteArrayList<>();
+    watches = new ConcurrentHashMap<>();
+    lastReturned = new ConcurrentHashMap<>();
     initialized = false;
   }
 
+  /**
+   * Get configuration set for a given {@code environment}. The returned state is marked as changed only when keys
+   * of the {@code environment} changed since the previous call for the same {@code environment}. It also lists the
+   * keys changed since the properties returned by that call (see {@link ConfigurationState#getChangedKeys(String, Map)}).
+   * <p>
+   * When watching the keys fails the keys seen last are returned while the query is retried in the background.
+   *
+   * @param environment environment to use
+   * @return configuration set for {@code environment}
+   * @throws IllegalStateException        when called before {@link #init()}
+   * @throws SourceCommunicationException when unable to load keys of an environment requested for the first time
+   */
   @Override
   public ConfigurationState getConfiguration(Environment environment) {
     LOG.trace("Requesting configuration for environment: " + environment.getName());
@@ -70,28 +108,26 @@ public class ConsulConfigurationSource implements ConfigurationSource {
       throw new IllegalStateException("Configuration source has to be successfully initialized before you request configuration.");
     }
 
-    reload();
+    String path = environmentPath(environment);
+    ConsulPrefixWatch watch = watch(path);
 
-    Map<String, Properties> propertiesMap = new HashMap<>();
-    Properties properties = new Properties();
-    String path = environment.getName();
+    ConsulPrefixWatch.Snapshot snapshot = watch.getSnapshot();
+    ConsulPrefixWatch.Snapshot previous = lastReturned.put(path, snapshot);
 
-    if (path.startsWith("/")) {
-      path = path.substring(1);
-    }
+    Map<String, Properties> propertiesMap = new HashMap<>();
+    propertiesMap.put(path, snapshot.properties);
 
-    if (path.length() > 0 && !path.endsWith("/")) {
-      path = path + "/";
+    if (previous == null) {
+      return new ConfigurationState(propertiesMap, true);
     }
 
-    for (Map.Entry<String, String> entry : consulValues.entrySet()) {
-      if (entry.getKey().startsWith(path)) {
-        properties.put(entry.getKey().substring(path.length()).replace("/", "."), entry.getValue());
-      }
+    ConfigurationState state = new ConfigurationState(propertiesMap, previous.version != snapshot.version);
+    Set<String> changedKeys = watch.changedKeys(previous, snapshot);
+    if (changedKeys != null) {
+      state.setChangedKeys(path, previous.properties, changedKeys);
     }
-    propertiesMap.put(path, properties);
 
-    return new ConfigurationState(propertiesMap, true);
+    return state;
   }
 
   /**
@@ -102,47 +138,107 @@ public class ConsulConfigurationSource implements ConfigurationSource {
     try {
       LOG.info("Connecting to Consul client at " + host + ":" + port);
 
-      Consul consul = Consul.builder().withHostAndPort(HostAndPort.fromParts(host, port)).build();
+      Consul consul = Consul.builder()
+          .withHostAndPort(HostAndPort.fromParts(host, port))
+          .withReadTimeoutMillis(readTimeoutMillis(blockingQueryWaitSeconds))
+          .build();
 
       kvClient = consul.keyValueClient();
     } catch (Exception e) {
       throw new SourceCommunicationException("Can't connect to host " + host + ":" + port, e);
     }
 
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "cfg4j-consul-watcher");
+      thread.setDaemon(true);
+      return thread;
+    });
     initialized = true;
   }
 
-  private void reload() {
-    Map<String, String> newConsulValues = new HashMap<>();
-    List<Value> valueList;
+  @Override
+  public void addChangeListener(ChangeListener listener) {
+    listeners.add(requireNonNull(listener));
+  }
 
-    try {
-      LOG.debug("Reloading configuration from Consuls' K-V store");
-      valueList = kvClient.getValues("/");
-    } catch (Exception e) {
-      throw new SourceCommunicationException("Can't get values from k-v store", e);
+  @Override
+  public void removeChangeListener(ChangeListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Stop watching Consul keys.
+   */
+  @Override
+  public void close() {
+    synchronized (watches) {
+      watches.values().forEach(ConsulPrefixWatch::close);
+      watches.clear();
+      lastReturned.clear();
+    }
+
+    if (scheduler != null) {
+      scheduler.shutdownNow();
     }
+  }
+
+  /**
+   * Consul answers a blocking query after up to {@code waitSeconds} plus a random wait of up to 1/16 of it, so the
+   * read timeout has to exceed that or healthy queries time out.
+   */
+  private static long readTimeoutMillis(int waitSeconds) {
+    long waitMillis = TimeUnit.SECONDS.toMillis(waitSeconds);
+    return waitMillis + waitMillis / 16 + READ_TIMEOUT_MARGIN_MILLIS;
+  }
 
-    for (Value value : valueList) {
-      String val = "";
+  private ConsulPrefixWatch watch(String path) {
+    ConsulPrefixWatch watch = watches.get(path);
+    if (watch != null) {
+      return watch;
+    }
 
-      if (value.getValueAsString().isPresent()) {
-        val = value.getValueAsString().get();
+    synchronized (watches) {
+      watch = watches.get(path);
+      if (watch == null) {
+        watch = new ConsulPrefixWatch(kvClient, path, blockingQueryWaitSeconds, scheduler, this::notifyListeners);
+        watch.start();
+        watches.put(path, watch);
       }
 
-      LOG.trace("Consul provided configuration key: " + value.getKey() + " with value: " + val);
+      return watch;
+    }
+  }
 
-      newConsulValues.put(value.getKey(), val);
+  private void notifyListeners() {
+    for (ChangeListener listener : listeners) {
+      try {
+        listener.onChange();
+      } catch (Exception e) {
+        LOG.warn("Change listener " + listener + " failed", e);
+      }
+    }
+  }
+
+  private static String environmentPath(Environment environment) {
+    String path = environment.getName();
+
+    if (path.startsWith("/")) {
+      path = path.substring(1);
+    }
+
+    if (path.length() > 0 && !path.endsWith("/")) {
+      path = path + "/";
     }
 
-    consulValues = newConsulValues;
+    return path;
   }
 
   @Override
   public String toString() {
     return "ConsulConfigurationSource{" +
-        "consulValues=" + consulValues +
-        ", kvClient=" + kvClient +
+        "host=" + host +
+        ", port=" + port +
+        ", watches=" + watches.values() +
         '}';
   }
 }
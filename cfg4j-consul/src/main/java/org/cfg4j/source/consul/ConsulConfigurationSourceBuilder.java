@@ -22,6 +22,7 @@ public class ConsulConfigurationSourceBuilder {
 
   private String host;
   private int port;
+  private int blockingQueryWaitSeconds;
 
   /**
    * Construct {@link ConsulConfigurationSource}s builder
@@ -30,11 +31,13 @@ public class ConsulConfigurationSourceBuilder {
    * <ul>
    * <li>host: localhost</li>
    * <li>port: 8500</li>
+   * <li>blocking query wait: 30 seconds</li>
    * </ul>
    */
   public ConsulConfigurationSourceBuilder() {
     host = "localhost";
     port = 8500;
+    blockingQueryWaitSeconds = 30;
   }
 
   /**
@@ -59,13 +62,25 @@ public class ConsulConfigurationSourceBuilder {
     return this;
   }
 
+  /**
+   * Set the maximum time a single Consul blocking query waits for changes before returning unchanged keys.
+   * Has to be lower than the HTTP read timeout of the Consul client.
+   *
+   * @param blockingQueryWaitSeconds wait time in seconds
+   * @return this builder with blocking query wait time set to provided parameter
+   */
+  public ConsulConfigurationSourceBuilder withBlockingQueryWait(int blockingQueryWaitSeconds) {
+    this.blockingQueryWaitSeconds = blockingQueryWaitSeconds;
+    return this;
+  }
+
   /**
    * Build a {@link ConsulConfigurationSource} using this builder's configuration
    *
    * @return new {@link ConsulConfigurationSource}
    */
   public ConsulConfigurationSource build() {
-    return new ConsulConfigurationSource(host, port);
+    return new ConsulConfigurationSource(host, port, blockingQueryWaitSeconds);
   }
 
   @Override
@@ -73,6 +88,7 @@ public class ConsulConfigurationSourceBuilder {
     return "ConsulConfigurationSource{" +
         "host=" + host +
         ", port=" + port +
+        ", blockingQueryWaitSeconds=" + blockingQueryWaitSeconds +
         '}';
   }
 }
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.consul;
+
+import static java.util.Objects.requireNonNull;
+
+import com.orbitz.consul.KeyValueClient;
+import com.orbitz.consul.async.ConsulResponseCallback;
+import com.orbitz.consul.model.ConsulResponse;
+import com.orbitz.consul.model.kv.Value;
+import com.orbitz.consul.option.QueryOptions;
+import org.cfg4j.source.SourceCommunicationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Keeps an up-to-date copy of all keys under a single Consul K-V prefix. After an initial query the prefix is watched
+ * using blocking queries with the last seen {@code X-Consul-Index}, so Consul only answers once something under
+ * the prefix changed (or the wait time elapsed).
+ * <p>
+ * Responses are diffed against the previous one using each key's {@code ModifyIndex}, so only added, modified and
+ * removed keys are decoded and applied. The keys changed by the most recent updates are kept, see
+ * {@link #changedKeys(Snapshot, Snapshot)}.
+ */
+class ConsulPrefixWatch implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ConsulPrefixWatch.class);
+
+  private static final long INITIAL_QUERY_TIMEOUT_SECONDS = 30;
+  private static final long MAX_RETRY_DELAY_SECONDS = 30;
+  private static final int MAX_HISTORY = 32;
+
+  private final KeyValueClient kvClient;
+  private final String path;
+  private final int waitSeconds;
+  private final ScheduledExecutorService scheduler;
+  private final Runnable changeCallback;
+  private final Map<String, Long> modifyIndexes;
+  private final Deque<Snapshot> history;
+
+  private volatile Snapshot snapshot;
+  private volatile boolean closed;
+  private int consecutiveFailures;
+
+  /**
+   * Create a watch for the given {@code path}. Call {@link #start()} to load the keys and start watching.
+   *
+   * @param kvClient       client used for querying Consul
+   * @param path           K-V prefix to watch
+   * @param waitSeconds    maximum time a blocking query waits for a change
+   * @param scheduler      executor used for retrying failed queries
+   * @param changeCallback called (from a Consul client thread) whenever keys under {@code path} change
+   */
+  ConsulPrefixWatch(KeyValueClient kvClient, String path, int waitSeconds, ScheduledExecutorService scheduler,
+                    Runnable changeCallback) {
+    this.kvClient = requireNonNull(kvClient);
+    this.path = requireNonNull(path);
+    this.waitSeconds = waitSeconds;
+    this.scheduler = requireNonNull(scheduler);
+    this.changeCallback = requireNonNull(changeCallback);
+    modifyIndexes = new HashMap<>();
+    history = new ArrayDeque<>();
+  }
+
+  /**
+   * Load keys under the watched prefix and start watching it.
+   *
+   * @throws SourceCommunicationException when unable to load keys
+   */
+  void start() {
+    LOG.debug("Loading configuration from Consul K-V path: " + path);
+
+    try {
+      update(query(QueryOptions.BLANK).get(INITIAL_QUERY_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SourceCommunicationException("Can't get values from k-v store", e);
+    } catch (ExecutionException e) {
+      throw new SourceCommunicationException("Can't get values from k-v store", asException(e.getCause()));
+    } catch (TimeoutException | RuntimeException e) {
+      throw new SourceCommunicationException("Can't get values from k-v store", e);
+    }
+
+    poll();
+  }
+
+  /**
+   * @return the most recent keys under the watched prefix
+   */
+  Snapshot getSnapshot() {
+    return snapshot;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  private void poll() {
+    if (closed) {
+      return;
+    }
+
+    QueryOptions options = QueryOptions.blockSeconds(waitSeconds, snapshot.index).build();
+    query(options).whenComplete((response, error) -> {
+      if (error != null) {
+        retry(error);
+        return;
+      }
+
+      consecutiveFailures = 0;
+
+      if (update(response)) {
+        LOG.debug("Consul K-V path changed: " + path);
+        changeCallback.run();
+      }
+
+      poll();
+    });
+  }
+
+  private void retry(Throwable error) {
+    if (closed) {
+      return;
+    }
+
+    long delay = Math.min(1L << Math.min(consecutiveFailures++, 5), MAX_RETRY_DELAY_SECONDS);
+    LOG.warn("Unable to watch Consul K-V path: " + path + ", retrying in " + delay + "s", error);
+
+    try {
+      scheduler.schedule(this::poll, delay, TimeUnit.SECONDS);
+    } catch (Exception e) {
+      LOG.debug("Stopped watching Consul K-V path: " + path, e);
+    }
+  }
+
+  /**
+   * Keys that changed between the given snapshots of this watch.
+   *
+   * @param since   snapshot previously obtained from {@link #getSnapshot()}
+   * @param current snapshot obtained from {@link #getSnapshot()} after {@code since}
+   * @return keys (relative to the watched prefix) added, modified or removed after {@code since} up to
+   * {@code current}, or {@code null} when no longer known
+   */
+  Set<String> changedKeys(Snapshot since, Snapshot current) {
+    Set<String> keys = new HashSet<>();
+
+    synchronized (history) {
+      if (since.version == current.version) {
+        return keys;
+      }
+
+      Snapshot oldest = history.peekFirst();
+      if (oldest == null || oldest.version > since.version + 1) {
+        return null;
+      }
+
+      for (Snapshot snapshot : history) {
+        if (snapshot.version > since.version && snapshot.version <= current.version) {
+          keys.addAll(snapshot.changedKeys);
+        }
+      }
+    }
+
+    return keys;
+  }
+
+  /**
+   * Apply a query response to the current snapshot. Only keys whose {@code ModifyIndex} differs from the one seen
+   * previously are decoded and only they are applied to a copy of the previous properties.
+   *
+   * @return true if keys changed since the previous snapshot
+   */
+  private boolean update(ConsulResponse<List<Value>> response) {
+    BigInteger index = response.getIndex();
+    // Consul requires blocking queries to use an index greater than zero
+    if (index == null || index.signum() <= 0) {
+      index = BigInteger.ONE;
+    }
+
+    synchronized (history) {
+      Snapshot previous = snapshot;
+      if (previous != null && index.equals(previous.index)) {
+        return false;
+      }
+
+      // The index going backwards (e.g. after a Consul restore) invalidates all ModifyIndexes, start from scratch
+      boolean reset = previous != null && index.compareTo(previous.index) < 0;
+      if (reset) {
+        LOG.info("Consul index for K-V path " + path + " went backwards, reloading all keys");
+        modifyIndexes.clear();
+      }
+
+      List<Value> values = response.getResponse() == null ? Collections.<Value>emptyList() : response.getResponse();
+      Properties properties = previous == null || reset ? new Properties() : (Properties) previous.properties.clone();
+      Set<String> changedKeys = new HashSet<>();
+      int previousSize = modifyIndexes.size();
+      int retained = 0;
+
+      for (Value value : values) {
+        if (!value.getKey().startsWith(path)) {
+          continue;
+        }
+
+        Long modifyIndex = modifyIndexes.put(value.getKey(), value.getModifyIndex());
+        if (modifyIndex != null) {
+          retained++;
+          if (modifyIndex == value.getModifyIndex()) {
+            continue;
+          }
+        }
+
+        String val = value.getValueAsString().isPresent() ? value.getValueAsString().get() : "";
+        LOG.trace("Consul provided configuration key: " + value.getKey() + " with value: " + val);
+
+        String key = propertyKey(value.getKey());
+        if (!val.equals(properties.put(key, val))) {
+          changedKeys.add(key);
+        }
+      }
+
+      // Keys seen previously but missing from the response were deleted
+      if (retained < previousSize) {
+        Set<String> present = new HashSet<>();
+        for (Value value : values) {
+          present.add(value.getKey());
+        }
+
+        for (Iterator<String> iterator = modifyIndexes.keySet().iterator(); iterator.hasNext(); ) {
+          String consulKey = iterator.next();
+          if (!present.contains(consulKey)) {
+            iterator.remove();
+            String key = propertyKey(consulKey);
+            properties.remove(key);
+            changedKeys.add(key);
+          }
+        }
+      }
+
+      if (reset) {
+        changedKeys = difference(previous.properties, properties);
+      }
+
+      if (previous != null && changedKeys.isEmpty()) {
+        snapshot = new Snapshot(previous.version, index, previous.properties, previous.changedKeys);
+        return false;
+      }
+
+      snapshot = new Snapshot(previous == null ? 0 : previous.version + 1, index, properties, changedKeys);
+      history.addLast(snapshot);
+      if (history.size() > MAX_HISTORY) {
+        history.removeFirst();
+      }
+
+      return previous != null;
+    }
+  }
+
+  private static Set<String> difference(Properties previous, Properties current) {
+    Set<String> keys = new HashSet<>();
+
+    for (String key : current.stringPropertyNames()) {
+      if (!current.getProperty(key).equals(previous.getProperty(key))) {
+        keys.add(key);
+      }
+    }
+    for (String key : previous.stringPropertyNames()) {
+      if (!current.containsKey(key)) {
+        keys.add(key);
+      }
+    }
+
+    return keys;
+  }
+
+  private String propertyKey(String consulKey) {
+    return consulKey.substring(path.length()).replace("/", ".");
+  }
+
+  private CompletableFuture<ConsulResponse<List<Value>>> query(QueryOptions options) {
+    CompletableFuture<ConsulResponse<List<Value>>> future = new CompletableFuture<>();
+
+    try {
+      kvClient.getValues(path, options, new ConsulResponseCallback<List<Value>>() {
+        @Override
+        public void onComplete(ConsulResponse<List<Value>> consulResponse) {
+          future.complete(consulResponse);
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+          future.completeExceptionally(throwable);
+        }
+      });
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+
+    return future;
+  }
+
+  private static Exception asException(Throwable throwable) {
+    return throwable instanceof Exception ? (Exception) throwable : new ExecutionException(throwable);
+  }
+
+  /**
+   * Keys under the watched prefix as of the given Consul index. {@code version} is incremented only when keys change,
+   * in which case {@code changedKeys} holds keys that differ from the previous version. Properties are never
+   * modified after the snapshot is published.
+   */
+  static final class Snapshot {
+    final long version;
+    final BigInteger index;
+    final Properties properties;
+    final Set<String> changedKeys;
+
+    Snapshot(long version, BigInteger index, Properties properties, Set<String> changedKeys) {
+      this.version = version;
+      this.index = index;
+      this.properties = properties;
+      this.changedKeys = changedKeys;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ConsulPrefixWatch{" +
+        "path='" + path + '\'' +
+        ", waitSeconds=" + waitSeconds +
+        '}';
+  }
+}
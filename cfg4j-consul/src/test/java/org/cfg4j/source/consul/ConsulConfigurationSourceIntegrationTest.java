@@ -22,6 +22,7 @@ import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
 import com.squareup.okhttp.mockwebserver.RecordedRequest;
 import org.assertj.core.data.MapEntry;
+import org.cfg4j.source.ConfigurationSource.ConfigurationState;
 import org.cfg4j.source.SourceCommunicationException;
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.ImmutableEnvironment;
@@ -34,6 +35,10 @@ import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 
@@ -49,27 +54,95 @@ public class ConsulConfigurationSourceIntegrationTest {
     private static final String enabledBase64 = "ZW5hYmxlZA==";
 
     private boolean usWest2Toggle = false;
+    private final CountDownLatch stallReleased = new CountDownLatch(1);
+    private final Semaphore stalledQueries = new Semaphore(0);
+    private volatile boolean stallBlockingQueries = false;
 
-    void toggleUsWest2() {
+    synchronized void toggleUsWest2() {
       usWest2Toggle = !usWest2Toggle;
+      notifyAll();
+    }
+
+    void stallBlockingQueries() {
+      stallBlockingQueries = true;
+    }
+
+    void releaseStalledQueries() {
+      stallReleased.countDown();
     }
 
     @Override
     public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+      String path = request.getPath();
+
+      if (path.equals("/v1/agent/self")) {
+        return new MockResponse().setResponseCode(200).setBody(PING_RESPONSE);
+      }
 
-      switch (request.getPath()) {
-        case "/v1/agent/self":
-          return new MockResponse().setResponseCode(200).setBody(PING_RESPONSE);
-        case "/v1/kv/?recurse=true":
-          return new MockResponse()
-              .setResponseCode(200)
-              .addHeader("Content-Type", "application/json; charset=utf-8")
-              .setBody("[{\"CreateIndex\":1,\"ModifyIndex\":1,\"LockIndex\":0,\"Key\":\"us-west-1/featureA.toggle\",\"Flags\":0,\"Value\":\"ZGlzYWJsZWQ=\"},"
-                  + "{\"CreateIndex\":2,\"ModifyIndex\":2,\"LockIndex\":0,\"Key\":\"us-west-2/featureA.toggle\",\"Flags\":0,\"Value\":\""
-                  + (usWest2Toggle ? enabledBase64 : disabledBase64) + "\"}]");
+      if (path.startsWith("/v1/kv/")) {
+        String key = decode(path.substring("/v1/kv/".length(), path.indexOf('?')));
+        String requestedIndex = queryParameter(path, "index");
+        if (requestedIndex != null && stallBlockingQueries) {
+          // Emulate a query that never gets answered
+          stalledQueries.release();
+          stallReleased.await(30, TimeUnit.SECONDS);
+        }
+        return kvResponse(key, requestedIndex == null ? 0 : Long.parseLong(requestedIndex));
       }
+
       return new MockResponse().setResponseCode(404);
     }
+
+    private synchronized MockResponse kvResponse(String key, long requestedIndex) throws InterruptedException {
+      // Emulate a blocking query: wait (up to 1 second) for the index to change
+      long deadline = System.currentTimeMillis() + 1000;
+      long remaining = deadline - System.currentTimeMillis();
+      while (currentIndex() == requestedIndex && remaining > 0) {
+        wait(remaining);
+        remaining = deadline - System.currentTimeMillis();
+      }
+
+      StringBuilder body = new StringBuilder("[");
+      if ("us-west-1/featureA.toggle".startsWith(key)) {
+        body.append("{\"CreateIndex\":1,\"ModifyIndex\":1,\"LockIndex\":0,\"Key\":\"us-west-1/featureA.toggle\",\"Flags\":0,\"Value\":\"ZGlzYWJsZWQ=\"}");
+      }
+      if ("us-west-2/featureA.toggle".startsWith(key)) {
+        body.append(body.length() > 1 ? "," : "")
+            .append("{\"CreateIndex\":2,\"ModifyIndex\":").append(currentIndex())
+            .append(",\"LockIndex\":0,\"Key\":\"us-west-2/featureA.toggle\",\"Flags\":0,\"Value\":\"")
+            .append(usWest2Toggle ? enabledBase64 : disabledBase64).append("\"}");
+      }
+      body.append("]");
+
+      return new MockResponse()
+          .setResponseCode(200)
+          .addHeader("Content-Type", "application/json; charset=utf-8")
+          .addHeader("X-Consul-Index", currentIndex())
+          .addHeader("X-Consul-Knownleader", "true")
+          .addHeader("X-Consul-Lastcontact", "0")
+          .setBody(body.toString());
+    }
+
+    private long currentIndex() {
+      return usWest2Toggle ? 3 : 2;
+    }
+
+    private String decode(String value) {
+      try {
+        return URLDecoder.decode(value, "UTF-8");
+      } catch (UnsupportedEncodingException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    private String queryParameter(String path, String name) {
+      for (String parameter : path.substring(path.indexOf('?') + 1).split("&")) {
+        if (parameter.startsWith(name + "=")) {
+          return parameter.substring(name.length() + 1);
+        }
+      }
+      return null;
+    }
   }
 
   @Rule
@@ -86,6 +159,7 @@ public class ConsulConfigurationSourceIntegrationTest {
     source = new ConsulConfigurationSourceBuilder()
         .withHost(server.getHostName())
         .withPort(server.getPort())
+        .withBlockingQueryWait(1)
         .build();
 
     source.init();
@@ -93,6 +167,8 @@ public class ConsulConfigurationSourceIntegrationTest {
 
   @After
   public void tearDown() throws Exception {
+    dispatcher.releaseStalledQueries();
+    source.close();
     server.shutdown();
   }
 
@@ -128,6 +204,66 @@ public class ConsulConfigurationSourceIntegrationTest {
     assertThat(source.getConfiguration(environment)).contains(MapEntry.entry("featureA.toggle", "disabled"));
   }
 
+  @Test
+  public void getConfigurationQueriesOnlyGivenEnvironment() throws Exception {
+    source.getConfiguration(new ImmutableEnvironment("us-west-1"));
+
+    server.takeRequest(); // agent ping
+    assertThat(server.takeRequest().getPath()).startsWith("/v1/kv/us-west-1/?");
+  }
+
+  @Test
+  public void getConfigurationReportsUnchangedStateWhenKeysDidNotChange() throws Exception {
+    Environment environment = new ImmutableEnvironment("us-west-2");
+    source.getConfiguration(environment);
+
+    ConfigurationState state = source.getConfiguration(environment);
+
+    assertThat(state.isStateChanged()).isFalse();
+    assertThat(state.getData().get("us-west-2/")).containsEntry("featureA.toggle", "disabled");
+  }
+
+  @Test
+  public void getConfigurationReportsChangedStateAfterKeysChange() throws Exception {
+    Environment environment = new ImmutableEnvironment("us-west-2");
+    CountDownLatch changed = new CountDownLatch(1);
+    source.addChangeListener(changed::countDown);
+    ConfigurationState first = source.getConfiguration(environment);
+
+    dispatcher.toggleUsWest2();
+
+    assertThat(changed.await(5, TimeUnit.SECONDS)).isTrue();
+    ConfigurationState state = source.getConfiguration(environment);
+    assertThat(state.isStateChanged()).isTrue();
+    assertThat(state.getData().get("us-west-2/")).containsEntry("featureA.toggle", "enabled");
+    assertThat(state.getChangedKeys("us-west-2/", first.getData().get("us-west-2/"))).containsExactly("featureA.toggle");
+  }
+
+  @Test
+  public void getConfigurationReturnsLastKeysWhileBlockingQueryStalls() throws Exception {
+    Environment environment = new ImmutableEnvironment("us-west-2");
+    source.getConfiguration(environment);
+    dispatcher.stallBlockingQueries();
+
+    // The first stalled query times out and the retried one stalls again
+    assertThat(dispatcher.stalledQueries.tryAcquire(2, 20, TimeUnit.SECONDS)).isTrue();
+
+    ConfigurationState state = source.getConfiguration(environment);
+    assertThat(state.isStateChanged()).isFalse();
+    assertThat(state.getData().get("us-west-2/")).containsEntry("featureA.toggle", "disabled");
+  }
+
+  @Test
+  public void getConfigurationDoesNotReportChangesOfOtherEnvironments() throws Exception {
+    Environment environment = new ImmutableEnvironment("us-west-1");
+    source.getConfiguration(environment);
+
+    dispatcher.toggleUsWest2();
+    Thread.sleep(200);
+
+    assertThat(source.getConfiguration(environment).isStateChanged()).isFalse();
+  }
+
   @Test
   public void getConfigurationThrowsBeforeInitCalled() throws Exception {
     source = new ConsulConfigurationSourceBuilder()
@@ -0,0 +1,510 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.binder;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Binds a parsed configuration tree (nested {@link Map}s, {@link List}s and scalars as produced by the
+ * {@link org.cfg4j.source.context.propertiesprovider.PropertiesProvider}s) directly onto an object of a given type.
+ * <p>
+ * Follows Gson's field binding rules (field names, {@link SerializedName}, transient and static fields skipped,
+ * missing keys leave field defaults untouched, unknown enum constants bind to {@code null}) without building an
+ * intermediate JSON document. Per-class fields and constructors are resolved once and cached. Types the binder does
+ * not model itself (e.g. {@link Object} fields or classes without a no-arg constructor) are handed over to Gson
+ * through its in-memory element tree.
+ * <p>
+ * This class is thread-safe.
+ */
+public class TreeBinder {
+
+  private final Gson gson;
+
+  private final ClassValue<ClassBinding> bindings = new ClassValue<ClassBinding>() {
+    @Override
+    protected ClassBinding computeValue(Class<?> type) {
+      return ClassBinding.of(type);
+    }
+  };
+
+  private final ClassValue<Map<String, Object>> enumConstants = new ClassValue<Map<String, Object>>() {
+    @Override
+    protected Map<String, Object> computeValue(Class<?> type) {
+      return enumConstantsOf(type);
+    }
+  };
+
+  /**
+   * Construct binder.
+   */
+  public TreeBinder() {
+    this(new Gson());
+  }
+
+  /**
+   * Construct binder falling back to {@code gson} for types it does not bind itself.
+   *
+   * @param gson {@link Gson} instance used as a fallback
+   */
+  public TreeBinder(Gson gson) {
+    this.gson = requireNonNull(gson);
+  }
+
+  /**
+   * Bind {@code tree} onto a new instance of {@code type}.
+   *
+   * @param tree parsed configuration subtree
+   * @param type target type
+   * @param <T>  target type
+   * @return bound object or {@code null} when {@code tree} is {@code null}
+   * @throws IllegalArgumentException when {@code tree} can't be converted to {@code type}
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T bind(Object tree, Class<T> type) {
+    return (T) bind(tree, (Type) type);
+  }
+
+  /**
+   * Bind {@code tree} onto a new instance of (possibly generic) {@code type}.
+   *
+   * @param tree parsed configuration subtree
+   * @param type target type
+   * @return bound object or {@code null} when {@code tree} is {@code null}
+   * @throws IllegalArgumentException when {@code tree} can't be converted to {@code type}
+   */
+  public Object bind(Object tree, Type type) {
+    if (tree == null) {
+      return null;
+    }
+
+    Class<?> rawType = rawTypeOf(type);
+
+    if (rawType == Object.class) {
+      return fallback(tree, type);
+    }
+
+    if (rawType.isPrimitive() || Scalars.isScalar(rawType)) {
+      return Scalars.convert(tree, rawType);
+    }
+
+    if (rawType.isEnum()) {
+      return bindEnum(tree, rawType);
+    }
+
+    if (rawType.isArray()) {
+      return bindArray(tree, type, rawType);
+    }
+
+    if (Collection.class.isAssignableFrom(rawType)) {
+      Collection<Object> collection = newCollection(rawType);
+      if (collection != null && tree instanceof Collection) {
+        return fillCollection(collection, (Collection<?>) tree, typeArgument(type, 0));
+      }
+    } else if (Map.class.isAssignableFrom(rawType)) {
+      Map<Object, Object> map = newMap(rawType);
+      if (map != null && tree instanceof Map) {
+        return fillMap(map, (Map<?, ?>) tree, typeArgument(type, 0), typeArgument(type, 1));
+      }
+    } else if (tree instanceof Map) {
+      ClassBinding binding = bindings.get(rawType);
+      if (binding.isBindable()) {
+        return bindObject(binding, (Map<?, ?>) tree);
+      }
+    } else if (rawType.isInstance(tree)) {
+      return tree;
+    }
+
+    return fallback(tree, type);
+  }
+
+  private Object bindObject(ClassBinding binding, Map<?, ?> tree) {
+    Object instance = binding.newInstance();
+
+    for (FieldBinding field : binding.fields) {
+      Object value = tree.get(field.name);
+      if (value != null) {
+        field.set(instance, bind(value, field.type));
+      }
+    }
+
+    return instance;
+  }
+
+  private Object bindArray(Object tree, Type type, Class<?> rawType) {
+    if (!(tree instanceof Collection)) {
+      return fallback(tree, type);
+    }
+
+    Type componentType = type instanceof GenericArrayType
+        ? ((GenericArrayType) type).getGenericComponentType()
+        : rawType.getComponentType();
+
+    Collection<?> elements = (Collection<?>) tree;
+    Object array = Array.newInstance(rawTypeOf(componentType), elements.size());
+
+    int i = 0;
+    for (Object element : elements) {
+      Object value = bind(element, componentType);
+      if (value != null) {
+        Array.set(array, i, value);
+      }
+      i++;
+    }
+
+    return array;
+  }
+
+  private Collection<Object> fillCollection(Collection<Object> collection, Collection<?> tree, Type elementType) {
+    for (Object element : tree) {
+      collection.add(bind(element, elementType));
+    }
+
+    return collection;
+  }
+
+  private Map<Object, Object> fillMap(Map<Object, Object> map, Map<?, ?> tree, Type keyType, Type valueType) {
+    for (Map.Entry<?, ?> entry : tree.entrySet()) {
+      map.put(bind(String.valueOf(entry.getKey()), keyType), bind(entry.getValue(), valueType));
+    }
+
+    return map;
+  }
+
+  private Object bindEnum(Object tree, Class<?> rawType) {
+    return enumConstants.get(rawType).get(String.valueOf(tree));
+  }
+
+  private Object fallback(Object tree, Type type) {
+    try {
+      return gson.fromJson(gson.toJsonTree(tree), type);
+    } catch (JsonParseException | NumberFormatException | IllegalStateException e) {
+      throw new IllegalArgumentException("Unable to bind configuration to " + type, e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Collection<Object> newCollection(Class<?> rawType) {
+    if (rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers())) {
+      if (SortedSet.class.isAssignableFrom(rawType)) {
+        return new TreeSet<>();
+      } else if (Set.class.isAssignableFrom(rawType)) {
+        return new LinkedHashSet<>();
+      } else if (Queue.class.isAssignableFrom(rawType)) {
+        return new ArrayDeque<>();
+      } else if (rawType.isAssignableFrom(ArrayList.class)) {
+        return new ArrayList<>();
+      }
+      return null;
+    }
+
+    return (Collection<Object>) ClassBinding.newInstanceOrNull(rawType);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<Object, Object> newMap(Class<?> rawType) {
+    if (rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers())) {
+      if (SortedMap.class.isAssignableFrom(rawType)) {
+        return new TreeMap<>();
+      } else if (rawType.isAssignableFrom(LinkedHashMap.class)) {
+        return new LinkedHashMap<>();
+      }
+      return null;
+    }
+
+    return (Map<Object, Object>) ClassBinding.newInstanceOrNull(rawType);
+  }
+
+  private static Map<String, Object> enumConstantsOf(Class<?> type) {
+    Map<String, Object> constants = new HashMap<>();
+
+    for (Object constant : type.getEnumConstants()) {
+      String name = ((Enum<?>) constant).name();
+      try {
+        SerializedName serializedName = type.getField(name).getAnnotation(SerializedName.class);
+        if (serializedName != null) {
+          name = serializedName.value();
+        }
+      } catch (NoSuchFieldException e) {
+        // NOP - constant without a backing field
+      }
+      constants.put(name, constant);
+    }
+
+    return constants;
+  }
+
+  private static Type typeArgument(Type type, int index) {
+    if (type instanceof ParameterizedType) {
+      Type argument = ((ParameterizedType) type).getActualTypeArguments()[index];
+      if (argument instanceof WildcardType) {
+        return ((WildcardType) argument).getUpperBounds()[0];
+      }
+      return argument;
+    }
+
+    return Object.class;
+  }
+
+  private static Class<?> rawTypeOf(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>) type;
+    } else if (type instanceof ParameterizedType) {
+      return (Class<?>) ((ParameterizedType) type).getRawType();
+    } else if (type instanceof GenericArrayType) {
+      return Array.newInstance(rawTypeOf(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+    } else if (type instanceof WildcardType) {
+      return rawTypeOf(((WildcardType) type).getUpperBounds()[0]);
+    }
+
+    return Object.class;
+  }
+
+  /**
+   * Cached binding metadata of a single class.
+   */
+  private static final class ClassBinding {
+
+    private final Constructor<?> constructor;
+    private final List<FieldBinding> fields;
+
+    private ClassBinding(Constructor<?> constructor, List<FieldBinding> fields) {
+      this.constructor = constructor;
+      this.fields = fields;
+    }
+
+    static ClassBinding of(Class<?> type) {
+      Constructor<?> constructor = constructorOf(type);
+      if (constructor == null) {
+        return new ClassBinding(null, null);
+      }
+
+      List<FieldBinding> fields = new ArrayList<>();
+      for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+        for (Field field : current.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+            continue;
+          }
+
+          fields.add(FieldBinding.of(field));
+        }
+      }
+
+      return new ClassBinding(constructor, fields);
+    }
+
+    boolean isBindable() {
+      return constructor != null;
+    }
+
+    Object newInstance() {
+      try {
+        return constructor.newInstance();
+      } catch (InvocationTargetException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new IllegalStateException("Unable to instantiate " + constructor.getDeclaringClass(), e.getCause());
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Unable to instantiate " + constructor.getDeclaringClass(), e);
+      }
+    }
+
+    static Object newInstanceOrNull(Class<?> type) {
+      Constructor<?> constructor = constructorOf(type);
+      return constructor == null ? null : new ClassBinding(constructor, null).newInstance();
+    }
+
+    private static Constructor<?> constructorOf(Class<?> type) {
+      if (type.isInterface() || Modifier.isAbstract(type.getModifiers())
+          || (type.isMemberClass() && !Modifier.isStatic(type.getModifiers()))) {
+        return null;
+      }
+
+      try {
+        Constructor<?> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return constructor;
+      } catch (NoSuchMethodException | SecurityException e) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Cached binding metadata of a single field.
+   */
+  private static final class FieldBinding {
+
+    private final String name;
+    private final Type type;
+    private final Field field;
+
+    private FieldBinding(String name, Type type, Field field) {
+      this.name = name;
+      this.type = type;
+      this.field = field;
+    }
+
+    static FieldBinding of(Field field) {
+      SerializedName serializedName = field.getAnnotation(SerializedName.class);
+      String name = serializedName == null ? field.getName() : serializedName.value();
+
+      field.setAccessible(true);
+
+      return new FieldBinding(name, field.getGenericType(), field);
+    }
+
+    void set(Object instance, Object value) {
+      try {
+        field.set(instance, value);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unable to bind " + value + " to field " + field, e);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException("Unable to set field " + field, e);
+      }
+    }
+  }
+
+  /**
+   * Conversions between scalar values, mirroring Gson's leniency (numbers from strings and vice versa).
+   */
+  private static final class Scalars {
+
+    private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<>();
+
+    static {
+      WRAPPERS.put(boolean.class, Boolean.class);
+      WRAPPERS.put(byte.class, Byte.class);
+      WRAPPERS.put(short.class, Short.class);
+      WRAPPERS.put(int.class, Integer.class);
+      WRAPPERS.put(long.class, Long.class);
+      WRAPPERS.put(float.class, Float.class);
+      WRAPPERS.put(double.class, Double.class);
+      WRAPPERS.put(char.class, Character.class);
+    }
+
+    static boolean isScalar(Class<?> type) {
+      return type == String.class || WRAPPERS.containsValue(type) || type == BigDecimal.class
+          || type == BigInteger.class || type == Number.class;
+    }
+
+    static Object convert(Object value, Class<?> type) {
+      Class<?> target = type.isPrimitive() ? WRAPPERS.get(type) : type;
+
+      if (target.isInstance(value)) {
+        return value;
+      }
+
+      if (value instanceof Map || value instanceof Collection) {
+        throw new IllegalArgumentException("Unable to bind " + value + " to " + type.getName());
+      }
+
+      try {
+        if (target == String.class) {
+          return value.toString();
+        } else if (target == Boolean.class) {
+          return toBoolean(value);
+        } else if (target == Character.class) {
+          return toCharacter(value);
+        } else if (target == Double.class) {
+          return toBigDecimal(value).doubleValue();
+        } else if (target == Float.class) {
+          return toBigDecimal(value).floatValue();
+        } else if (target == BigDecimal.class || target == Number.class) {
+          return toBigDecimal(value);
+        } else if (target == BigInteger.class) {
+          return toBigDecimal(value).toBigIntegerExact();
+        } else if (target == Long.class) {
+          return toBigDecimal(value).longValueExact();
+        } else if (target == Integer.class) {
+          return toBigDecimal(value).intValueExact();
+        } else if (target == Short.class) {
+          return toBigDecimal(value).shortValueExact();
+        } else if (target == Byte.class) {
+          return toBigDecimal(value).byteValueExact();
+        }
+      } catch (ArithmeticException e) {
+        throw new IllegalArgumentException("Unable to bind " + value + " to " + type.getName(), e);
+      }
+
+      throw new IllegalArgumentException("Unable to bind " + value + " to " + type.getName());
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+      if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+        return BigDecimal.valueOf(((Number) value).longValue());
+      } else if (value instanceof BigDecimal) {
+        return (BigDecimal) value;
+      } else if (value instanceof BigInteger) {
+        return new BigDecimal((BigInteger) value);
+      }
+
+      try {
+        return new BigDecimal(value.toString().trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Unable to bind " + value + " to a number", e);
+      }
+    }
+
+    private static Boolean toBoolean(Object value) {
+      if (value instanceof String) {
+        return Boolean.parseBoolean((String) value);
+      }
+
+      throw new IllegalArgumentException("Unable to bind " + value + " to a boolean");
+    }
+
+    private static Character toCharacter(Object value) {
+      String string = value.toString();
+      if (string.length() != 1) {
+        throw new IllegalArgumentException("Unable to bind " + value + " to a char");
+      }
+
+      return string.charAt(0);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.provider;
+
+/**
+ * Pre-resolved accessor for a single {@link ConfigMeta} bound class. Obtain it once with
+ * {@link ConfigurationProvider#handle(Class)} and call {@link #get()} on the hot path. The handle stays valid across
+ * reloads - {@link #get()} always returns the object bound by the most recent reload.
+ *
+ * @param <T> bound configuration type
+ */
+public interface ConfigHandle<T> {
+
+  /**
+   * Get the currently bound configuration object.
+   *
+   * @return object bound by the most recent reload or {@code null} if nothing was bound yet
+   */
+  T get();
+
+}
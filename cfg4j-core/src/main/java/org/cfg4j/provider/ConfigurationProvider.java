@@ -37,4 +37,15 @@ public interface ConfigurationProvider {
 
   <T> T extract(Class<T> type );
 
+  /**
+   * Get a pre-resolved {@link ConfigHandle} for the {@link ConfigMeta} annotated {@code type}. Reading through the handle
+   * skips the environment and class lookups done by {@link #extract(Class)}.
+   *
+   * @param type {@link ConfigMeta} annotated class
+   * @param <T>  bound configuration type
+   * @return handle always pointing at the latest object bound for {@code type}
+   * @throws NoSuchElementException when {@code type} is not a known {@link ConfigMeta} class
+   */
+  <T> ConfigHandle<T> handle(Class<T> type);
+
 }
@@ -24,9 +24,11 @@ import org.cfg4j.source.ConfigurationDataWrapper;
 import org.cfg4j.source.ConfigurationSource;
 import org.cfg4j.source.context.environment.DefaultEnvironment;
 import org.cfg4j.source.context.environment.Environment;
+import org.cfg4j.source.context.environment.MissingEnvironmentException;
 import org.cfg4j.source.empty.EmptyConfigurationSource;
 import org.cfg4j.source.metered.MeteredConfigurationSource;
 import org.cfg4j.source.reload.CachedConfigurationSource;
+import org.cfg4j.source.reload.ChangeAwareReloadable;
 import org.cfg4j.source.reload.MeteredReloadable;
 import org.cfg4j.source.reload.ReloadStrategy;
 import org.cfg4j.source.reload.Reloadable;
@@ -125,6 +127,11 @@ public class ConfigurationProviderBuilder {
    * <li>source.reload</li>
    * </ul>
    * Each of those metrics is of {@link Timer} type (i.e. includes execution time percentiles, execution count, etc.)
+   * <p>Cache-level metrics ({@link com.codahale.metrics.Counter} type)</p>
+   * <ul>
+   * <li>cache.rebound</li>
+   * <li>cache.reused</li>
+   * </ul>
    *
    * @param metricRegistry metric registry for registering metrics
    * @param prefix         prefix for metric names
@@ -137,9 +144,14 @@ public class ConfigurationProviderBuilder {
   }
 
   /**
-   * Build a {@link ConfigurationProvider} using this builder's configuration.
+   * Build a {@link ConfigurationProvider} using this builder's configuration. The first configuration load is
+   * performed by the {@link ReloadStrategy} when the provider is registered with it. When the strategy performs it
+   * in the calling thread (as all strategies do unless configured to load asynchronously) its failure is rethrown
+   * and the provider is de-registered.
    *
    * @return new {@link ConfigurationProvider}
+   * @throws MissingEnvironmentException when the environment couldn't be found during the first load
+   * @throws IllegalStateException       when unable to fetch configuration during the first load
    */
   public ConfigurationProvider build() {
     LOG.info("Initializing ConfigurationProvider with "
@@ -147,24 +159,28 @@ public class ConfigurationProviderBuilder {
         + reloadStrategy.getClass().getCanonicalName() + " reload strategy and "
         + environment.getClass().getCanonicalName() + " environment");
 
-    final ConfigurationDataWrapper cachedConfigurationSource = new CachedConfigurationSource(configurationSource, basePathToConfigMetaClasses);
+    final ConfigurationDataWrapper cachedConfigurationSource = metricRegistry == null
+        ? new CachedConfigurationSource(configurationSource, basePathToConfigMetaClasses)
+        : new CachedConfigurationSource(configurationSource, basePathToConfigMetaClasses, metricRegistry, prefix);
 //    if (metricRegistry != null) {
 //      configurationSource = new MeteredConfigurationSource(metricRegistry, prefix, cachedConfigurationSource);
 //    }
     cachedConfigurationSource.init();
 
-    Reloadable reloadable = new Reloadable() {
-      @Override
-      public void reload() {
-        cachedConfigurationSource.reload(environment);
-      }
-    };
+    FirstLoadTrackingReloadable sourceReloadable = new FirstLoadTrackingReloadable(cachedConfigurationSource, environment);
+    Reloadable reloadable = sourceReloadable;
 
     if (metricRegistry != null) {
       reloadable = new MeteredReloadable(metricRegistry, prefix, reloadable);
     }
-    reloadable.reload();
+
+    // The strategy performs the first load (possibly asynchronously), a failed synchronous one fails the build
     reloadStrategy.register(reloadable);
+    RuntimeException firstLoadFailure = sourceReloadable.registered();
+    if (firstLoadFailure != null) {
+      reloadStrategy.deregister(reloadable);
+      throw firstLoadFailure;
+    }
 
     SimpleConfigurationProvider configurationProvider = new SimpleConfigurationProvider(cachedConfigurationSource, environment);
     if (metricRegistry != null) {
@@ -184,4 +200,56 @@ public class ConfigurationProviderBuilder {
         ", prefix='" + prefix + '\'' +
         '}';
   }
+
+  /**
+   * Reloads the cached source and records the outcome of reloads performed in the building thread until the
+   * registration with the {@link ReloadStrategy} completes, i.e. of a synchronous first load.
+   */
+  private static final class FirstLoadTrackingReloadable implements ChangeAwareReloadable {
+
+    private final ConfigurationDataWrapper source;
+    private final Environment environment;
+    private final Thread buildingThread;
+    private volatile boolean registering;
+    private RuntimeException firstLoadFailure;
+
+    FirstLoadTrackingReloadable(ConfigurationDataWrapper source, Environment environment) {
+      this.source = source;
+      this.environment = environment;
+      buildingThread = Thread.currentThread();
+      registering = true;
+    }
+
+    @Override
+    public void reload() {
+      reloadAndReportChange();
+    }
+
+    @Override
+    public boolean reloadAndReportChange() {
+      boolean tracked = registering && Thread.currentThread() == buildingThread;
+      try {
+        boolean changed = source.reload(environment);
+        if (tracked) {
+          firstLoadFailure = null;
+        }
+        return changed;
+      } catch (RuntimeException e) {
+        if (tracked) {
+          firstLoadFailure = e;
+        }
+        throw e;
+      }
+    }
+
+    /**
+     * Stop recording failures.
+     *
+     * @return failure of the last reload performed in the building thread, null if it succeeded or there was none
+     */
+    RuntimeException registered() {
+      registering = false;
+      return firstLoadFailure;
+    }
+  }
 }
@@ -72,4 +72,12 @@ class MeteredConfigurationProvider implements ConfigurationProvider {
       context.stop();
     }
   }
+
+  /**
+   * Handle reads are not metered - timing them would cost more than the read itself.
+   */
+  @Override
+  public <T> ConfigHandle<T> handle(Class<T> type) {
+    return delegate.handle(type);
+  }
 }
@@ -62,6 +62,11 @@ class SimpleConfigurationProvider implements ConfigurationProvider {
     return configurationDataWrapper.extract(environment, type);
   }
 
+  @Override
+  public <T> ConfigHandle<T> handle(Class<T> type) {
+    return configurationDataWrapper.handle(environment, type);
+  }
+
   @Override
   public String toString() {
     return "SimpleConfigurationProvider{" +
@@ -0,0 +1,569 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source;
+
+import static java.util.Objects.requireNonNull;
+
+import org.cfg4j.utils.LazyProperties;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Immutable, compact configuration tree. Nested maps are {@link ConfigTree}s themselves and lists are unmodifiable,
+ * so a tree can be shared between threads and snapshots without copying.
+ * <p>
+ * Keys are interned and kept in a sorted array, lookups use binary search and take no locks. {@link Integer},
+ * {@link Long}, {@link Double} and {@link Boolean} leaves are stored unboxed in a primitive array and can be read
+ * without boxing (see {@link #getLong(String, long)}). Values may be computed on first access (see
+ * {@link Builder#putLazy(String, Supplier)}), each of them at most once. {@link #toProperties()} adapts the tree to
+ * the {@link Properties} API. Trees are serialized as {@link LinkedHashMap}s with all values computed.
+ */
+public final class ConfigTree extends AbstractMap<String, Object> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Tree without any keys.
+   */
+  public static final ConfigTree EMPTY = new ConfigTree(new String[0], new byte[0], new Object[0], null);
+
+  private static final byte OBJECT = 0;
+  private static final byte INT = 1;
+  private static final byte LONG = 2;
+  private static final byte DOUBLE = 3;
+  private static final byte BOOLEAN = 4;
+  private static final byte LAZY = 5;
+
+  private final String[] keys;
+  private final byte[] kinds;
+  private final Object[] objects;
+  private final long[] primitives;
+
+  private volatile Properties properties;
+
+  private ConfigTree(String[] keys, byte[] kinds, Object[] objects, long[] primitives) {
+    this.keys = keys;
+    this.kinds = kinds;
+    this.objects = objects;
+    this.primitives = primitives;
+  }
+
+  /**
+   * Convert {@code map} into a tree. Keys are converted to strings, nested maps and lists are converted recursively.
+   * Values of a {@link LazyProperties} that weren't computed yet stay lazy.
+   *
+   * @param map map to convert
+   * @return tree with the content of {@code map}, {@code map} itself when it's already a tree
+   */
+  public static ConfigTree of(Map<?, ?> map) {
+    requireNonNull(map);
+
+    if (map instanceof ConfigTree) {
+      return (ConfigTree) map;
+    }
+
+    Builder builder = new Builder();
+
+    if (map instanceof LazyProperties) {
+      LazyProperties lazyProperties = (LazyProperties) map;
+      for (Object key : lazyProperties.keySet().toArray()) {
+        if (lazyProperties.isPending(key)) {
+          builder.putLazy(String.valueOf(key), () -> lazyProperties.get(key));
+        } else {
+          builder.put(String.valueOf(key), lazyProperties.get(key));
+        }
+      }
+    } else {
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        builder.put(String.valueOf(entry.getKey()), entry.getValue());
+      }
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * @return new builder of an immutable tree
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  public Object get(Object key) {
+    int index = indexOf(key);
+    return index < 0 ? null : valueAt(index);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return keys.length == 0;
+  }
+
+  /**
+   * @param key key to look up
+   * @return subtree stored under {@code key}, {@code null} when there's none
+   */
+  public ConfigTree getTree(String key) {
+    Object value = get(key);
+    return value instanceof ConfigTree ? (ConfigTree) value : null;
+  }
+
+  /**
+   * Resolve a dotted {@code path} in {@code map} the same way {@link #find(String)} does, walking nested maps.
+   *
+   * @param map  map to search
+   * @param path dotted path to resolve
+   * @return value at {@code path}, {@code null} when there's none
+   */
+  public static Object find(Map<?, ?> map, String path) {
+    if (map instanceof ConfigTree) {
+      return ((ConfigTree) map).find(path);
+    }
+
+    Object value = map.get(path);
+    if (value != null) {
+      return value;
+    }
+
+    for (int dot = path.lastIndexOf('.'); dot > 0; dot = path.lastIndexOf('.', dot - 1)) {
+      Object subtree = map.get(path.substring(0, dot));
+      if (subtree instanceof Map) {
+        value = find((Map<?, ?>) subtree, path.substring(dot + 1));
+        if (value != null) {
+          return value;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Resolve a dotted {@code path} (e.g. {@code server.port}) by walking nested trees. Keys may contain dots
+   * themselves: a key equal to {@code path} wins, then the longest key that is a prefix of {@code path}. Lookups
+   * use the sorted key arrays of the trees on the way, no index of all paths is kept in memory.
+   *
+   * @param path dotted path to resolve
+   * @return value at {@code path}, {@code null} when there's none
+   */
+  public Object find(String path) {
+    int index = indexOf(path);
+    if (index >= 0) {
+      return valueAt(index);
+    }
+
+    for (int dot = path.lastIndexOf('.'); dot > 0; dot = path.lastIndexOf('.', dot - 1)) {
+      ConfigTree subtree = getTree(path.substring(0, dot));
+      if (subtree != null) {
+        Object value = subtree.find(path.substring(dot + 1));
+        if (value != null) {
+          return value;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * @param key          key to look up
+   * @param defaultValue value returned when {@code key} is missing or isn't a number
+   * @return number stored under {@code key} as long
+   */
+  public long getLong(String key, long defaultValue) {
+    int index = indexOf(key);
+    if (index < 0) {
+      return defaultValue;
+    }
+
+    if (kinds[index] == INT || kinds[index] == LONG) {
+      return primitives[index];
+    }
+
+    Object value = valueAt(index);
+    return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+  }
+
+  /**
+   * @param key          key to look up
+   * @param defaultValue value returned when {@code key} is missing or isn't a number
+   * @return number stored under {@code key} as double
+   */
+  public double getDouble(String key, double defaultValue) {
+    int index = indexOf(key);
+    if (index < 0) {
+      return defaultValue;
+    }
+
+    switch (kinds[index]) {
+      case DOUBLE:
+        return Double.longBitsToDouble(primitives[index]);
+      case INT:
+      case LONG:
+        return primitives[index];
+      default:
+        Object value = valueAt(index);
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+    }
+  }
+
+  /**
+   * @param key          key to look up
+   * @param defaultValue value returned when {@code key} is missing or isn't a boolean
+   * @return boolean stored under {@code key}
+   */
+  public boolean getBoolean(String key, boolean defaultValue) {
+    int index = indexOf(key);
+    if (index < 0) {
+      return defaultValue;
+    }
+
+    if (kinds[index] == BOOLEAN) {
+      return primitives[index] != 0;
+    }
+
+    Object value = valueAt(index);
+    return value instanceof Boolean ? (Boolean) value : defaultValue;
+  }
+
+  /**
+   * Adapt this tree to the {@link Properties} API. The adapter is created once per tree and computes lazy values
+   * of this tree only when they're read from it. Entries with {@code null} values are omitted. Dotted keys missing
+   * from the adapter are resolved on read using {@link #find(String)}. The adapter is shared, callers must not modify
+   * it (see {@link #newProperties()}).
+   *
+   * @return properties with top-level entries of this tree
+   */
+  public Properties toProperties() {
+    Properties adapter = properties;
+    if (adapter == null) {
+      adapter = newProperties();
+      properties = adapter;
+    }
+
+    return adapter;
+  }
+
+  /**
+   * Create a new adapter of this tree to the {@link Properties} API, in the same way as {@link #toProperties()}.
+   * The adapter isn't shared, callers may modify it without affecting the tree or other adapters.
+   *
+   * @return properties with top-level entries of this tree
+   */
+  public Properties newProperties() {
+    LazyProperties lazyProperties = new PathProperties(this);
+    for (int i = 0; i < keys.length; i++) {
+      int index = i;
+      if (kinds[i] == LAZY && ((Lazy) objects[i]).isPending()) {
+        lazyProperties.putLazy(keys[i], () -> valueAt(index));
+      } else if (valueAt(i) != null) {
+        lazyProperties.put(keys[i], valueAt(i));
+      }
+    }
+
+    return lazyProperties;
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    return new AbstractSet<Map.Entry<String, Object>>() {
+      @Override
+      public Iterator<Map.Entry<String, Object>> iterator() {
+        return new Iterator<Map.Entry<String, Object>>() {
+          private int index;
+
+          @Override
+          public boolean hasNext() {
+            return index < keys.length;
+          }
+
+          @Override
+          public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            return new Slot(index++);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.length;
+      }
+    };
+  }
+
+  private Object writeReplace() {
+    return new LinkedHashMap<>(this);
+  }
+
+  private int indexOf(Object key) {
+    return key instanceof String ? Arrays.binarySearch(keys, key) : -1;
+  }
+
+  private Object valueAt(int index) {
+    switch (kinds[index]) {
+      case INT:
+        return (int) primitives[index];
+      case LONG:
+        return primitives[index];
+      case DOUBLE:
+        return Double.longBitsToDouble(primitives[index]);
+      case BOOLEAN:
+        return primitives[index] != 0;
+      case LAZY:
+        return ((Lazy) objects[index]).get();
+      default:
+        return objects[index];
+    }
+  }
+
+  private static Object convert(Object value) {
+    if (value instanceof Map) {
+      return of((Map<?, ?>) value);
+    }
+
+    if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      List<Object> converted = new ArrayList<>(list.size());
+      for (Object element : list) {
+        converted.add(convert(element));
+      }
+      return Collections.unmodifiableList(converted);
+    }
+
+    return value;
+  }
+
+  /**
+   * Entry of the tree computing its value (if lazy) only when read, so iterating over keys doesn't compute values.
+   */
+  private final class Slot implements Map.Entry<String, Object> {
+
+    private final int index;
+
+    Slot(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getKey() {
+      return keys[index];
+    }
+
+    @Override
+    public Object getValue() {
+      return valueAt(index);
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+      return getKey().equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return getKey().hashCode() ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  /**
+   * {@link Properties} adapter of a tree resolving dotted keys through the tree.
+   */
+  private static final class PathProperties extends LazyProperties {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ConfigTree tree;
+
+    PathProperties(ConfigTree tree) {
+      this.tree = tree;
+    }
+
+    @Override
+    public Object get(Object key) {
+      Object value = super.get(key);
+      if (value == null && tree != null && key instanceof String && ((String) key).indexOf('.') > 0) {
+        return tree.find((String) key);
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Value computed on first access.
+   */
+  private static final class Lazy {
+
+    private Supplier<?> supplier;
+    private Object value;
+    private volatile boolean computed;
+
+    Lazy(Supplier<?> supplier) {
+      this.supplier = supplier;
+    }
+
+    boolean isPending() {
+      return !computed;
+    }
+
+    Object get() {
+      if (!computed) {
+        synchronized (this) {
+          if (!computed) {
+            value = convert(supplier.get());
+            supplier = null;
+            computed = true;
+          }
+        }
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Builder of {@link ConfigTree}. When a key is added more than once the last value wins.
+   */
+  public static final class Builder {
+
+    private final Map<String, Object> entries = new LinkedHashMap<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Add a value. Nested maps and lists are converted to their immutable counterparts.
+     *
+     * @param key   key to add
+     * @param value value of the key
+     * @return this builder
+     */
+    public Builder put(String key, Object value) {
+      entries.put(requireNonNull(key), value);
+      return this;
+    }
+
+    /**
+     * Add a value computed by {@code supplier} when first read from the tree.
+     *
+     * @param key      key to add
+     * @param supplier supplier computing the value, called at most once
+     * @return this builder
+     */
+    public Builder putLazy(String key, Supplier<?> supplier) {
+      entries.put(requireNonNull(key), new Lazy(requireNonNull(supplier)));
+      return this;
+    }
+
+    /**
+     * @return tree with all added values
+     */
+    public ConfigTree build() {
+      if (entries.isEmpty()) {
+        return EMPTY;
+      }
+
+      String[] keys = entries.keySet().toArray(new String[entries.size()]);
+      Arrays.sort(keys);
+
+      byte[] kinds = new byte[keys.length];
+      Object[] objects = new Object[keys.length];
+      long[] primitives = null;
+
+      for (int i = 0; i < keys.length; i++) {
+        Object value = entries.get(keys[i]);
+        keys[i] = keys[i].intern();
+
+        byte kind = kindOf(value);
+        kinds[i] = kind;
+
+        if (kind == OBJECT || kind == LAZY) {
+          objects[i] = kind == OBJECT ? convert(value) : value;
+          continue;
+        }
+
+        if (primitives == null) {
+          primitives = new long[keys.length];
+        }
+
+        if (kind == DOUBLE) {
+          primitives[i] = Double.doubleToRawLongBits((Double) value);
+        } else if (kind == BOOLEAN) {
+          primitives[i] = (Boolean) value ? 1 : 0;
+        } else {
+          primitives[i] = ((Number) value).longValue();
+        }
+      }
+
+      return new ConfigTree(keys, kinds, objects, primitives);
+    }
+
+    private static byte kindOf(Object value) {
+      if (value instanceof Lazy) {
+        return LAZY;
+      } else if (value instanceof Integer) {
+        return INT;
+      } else if (value instanceof Long) {
+        return LONG;
+      } else if (value instanceof Double) {
+        return DOUBLE;
+      } else if (value instanceof Boolean) {
+        return BOOLEAN;
+      }
+      return OBJECT;
+    }
+  }
+}
@@ -2,6 +2,7 @@ package org.cfg4j.source;
 
 import static java.util.Objects.requireNonNull;
 
+import org.cfg4j.provider.ConfigHandle;
 import org.cfg4j.source.context.environment.Environment;
 
 public interface ConfigurationDataWrapper {
@@ -10,7 +11,9 @@ public interface ConfigurationDataWrapper {
 
   <T> T extract(Environment environment, Class<T> type);
 
-   void reload(Environment environment);
+  <T> ConfigHandle<T> handle(Environment environment, Class<T> type);
+
+  boolean reload(Environment environment);
 
   public class ConfigMetaInfo{
 
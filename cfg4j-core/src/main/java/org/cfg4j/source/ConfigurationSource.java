@@ -15,12 +15,17 @@
  */
 package org.cfg4j.source;
 
+import static java.util.Objects.requireNonNull;
+
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.MissingEnvironmentException;
 import org.cfg4j.source.inmemory.InMemoryConfigurationSource;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Provides access to configuration store and exposes configuration values in bulk {@link Properties} format.
@@ -47,30 +52,205 @@ public interface ConfigurationSource {
    */
   void init();
 
+  /**
+   * Configuration returned by a source along with information on whether it changed. Data is kept either as
+   * {@link ConfigTree}s or as {@link Properties} (file name to its content), whichever the source provided, and
+   * adapted to the other representation on demand.
+   * <p>
+   * {@link #isStateChanged()} is relative to the previous state the same source instance returned for the same
+   * environment, whoever asked for it. It is a hint only: a consumer sharing the source with others may never see
+   * some of the changed states, so it has to compare the data with the state it saw last rather than rely on this
+   * flag. Changed keys ({@link #getChangedKeys(String, Map)}) are instead tied to the exact file content they are
+   * relative to, so a consumer only uses them when that is the content it saw last.
+   */
   public class ConfigurationState{
 
     private Map<String,Properties> data;
+    private Map<String, ConfigTree> trees;
+    private boolean backedByTrees;
     private boolean stateChanged;
+    private Map<String, ChangedKeys> changedKeys;
 
     public ConfigurationState(Map<String,Properties> data , boolean stateChanged){
       this.data = data;
       this.stateChanged = stateChanged;
     }
 
+    /**
+     * Create a state backed by {@link ConfigTree}s.
+     *
+     * @param trees        configuration data (file name to its tree)
+     * @param stateChanged whether the data changed since the previous call
+     * @return state holding {@code trees}
+     */
+    public static ConfigurationState ofTrees(Map<String, ConfigTree> trees, boolean stateChanged) {
+      ConfigurationState state = new ConfigurationState(null, stateChanged);
+      state.trees = trees;
+      state.backedByTrees = true;
+      return state;
+    }
+
+    /**
+     * Create a state holding the same data as this one.
+     *
+     * @param stateChanged whether the data changed since the previous call
+     * @return state with the data of this state, changed keys are unknown
+     */
+    public ConfigurationState withStateChanged(boolean stateChanged) {
+      ConfigurationState state = new ConfigurationState(data, stateChanged);
+      state.trees = trees;
+      state.backedByTrees = backedByTrees;
+      return state;
+    }
+
     public void setData(Map<String, Properties> data) {
       this.data = data;
+      this.trees = null;
+      this.backedByTrees = false;
+      this.changedKeys = null;
     }
 
     public void setStateChanged(boolean stateChanged) {
       this.stateChanged = stateChanged;
     }
 
+    /**
+     * @return file name to its properties, adapted from {@link ConfigTree}s (see {@link ConfigTree#toProperties()})
+     * when the state is backed by trees
+     */
     public Map<String, Properties> getData() {
+      if (data == null && trees != null) {
+        Map<String, Properties> adapted = new HashMap<>();
+        trees.forEach((fileName, tree) -> adapted.put(fileName, tree.toProperties()));
+        data = adapted;
+      }
+
       return data;
     }
 
+    /**
+     * @return file name to its tree, converted from {@link Properties} (see {@link ConfigTree#of(Map)}) when the
+     * state is backed by properties
+     */
+    public Map<String, ConfigTree> getTrees() {
+      if (trees == null && data != null) {
+        Map<String, ConfigTree> converted = new HashMap<>();
+        data.forEach((fileName, properties) -> converted.put(fileName, ConfigTree.of(properties)));
+        trees = converted;
+      }
+
+      return trees;
+    }
+
+    /**
+     * @return names of files in this state
+     */
+    public Set<String> getFileNames() {
+      if (backedByTrees) {
+        return trees == null ? Collections.<String>emptySet() : trees.keySet();
+      }
+
+      return data == null ? Collections.<String>emptySet() : data.keySet();
+    }
+
+    /**
+     * Get content of a file without converting data between representations. The representation provided by the
+     * source is returned even after the data was adapted to the other one, so the same instance is returned on every
+     * call.
+     *
+     * @param fileName file name
+     * @return {@link ConfigTree} or {@link Properties} of {@code fileName}, {@code null} when the file is missing
+     */
+    public Map<?, ?> getFile(String fileName) {
+      if (backedByTrees) {
+        return trees == null ? null : trees.get(fileName);
+      }
+
+      return data == null ? null : data.get(fileName);
+    }
+
+    /**
+     * Get a value of a file without converting data between representations. Dotted keys are resolved against
+     * nested values when the file doesn't contain them directly, whichever representation backs the state (see
+     * {@link ConfigTree#find(Map, String)}).
+     *
+     * @param fileName file name
+     * @param key      key
+     * @return value of {@code key} in {@code fileName}, {@code null} when the file or the key is missing
+     */
+    public Object getValue(String fileName, String key) {
+      Map<?, ?> file = getFile(fileName);
+      return file == null ? null : ConfigTree.find(file, key);
+    }
+
     public boolean isStateChanged() {
       return stateChanged;
     }
+
+    /**
+     * Record which keys of file {@code fileName} differ between {@code since} and the content of that file in this
+     * state. Consumers that last saw {@code since} may then skip the unchanged parts of the file.
+     *
+     * @param fileName file name
+     * @param since    content of {@code fileName} as returned in an earlier state of the same source
+     * @param keys     keys added, modified or removed after {@code since}
+     */
+    public void setChangedKeys(String fileName, Map<?, ?> since, Set<String> keys) {
+      if (changedKeys == null) {
+        changedKeys = new HashMap<>();
+      }
+
+      changedKeys.put(fileName, new ChangedKeys(requireNonNull(since), requireNonNull(keys)));
+    }
+
+    /**
+     * @param fileName file name
+     * @param since    content of {@code fileName} the caller saw last
+     * @return keys of {@code fileName} changed after {@code since}, or {@code null} when unknown (including when the
+     * keys were recorded relative to other content)
+     */
+    public Set<String> getChangedKeys(String fileName, Map<?, ?> since) {
+      ChangedKeys fileChanges = changedKeys == null ? null : changedKeys.get(fileName);
+      return fileChanges == null || fileChanges.since != since ? null : fileChanges.keys;
+    }
+
+    /**
+     * Check if the subtree rooted at {@code key} in file {@code fileName} may have changed since {@code since}. It
+     * may have changed when the key itself, any of its descendants ({@code key.*}) or any of its ancestors changed.
+     * Always true when changed keys relative to {@code since} are unknown.
+     *
+     * @param fileName file name to check
+     * @param since    content of {@code fileName} the caller saw last
+     * @param key      root key of the subtree to check
+     * @return false when the subtree is known to be unchanged, true otherwise
+     */
+    public boolean mayHaveChanged(String fileName, Map<?, ?> since, String key) {
+      Set<String> keys = getChangedKeys(fileName, since);
+      if (keys == null) {
+        return true;
+      }
+
+      if (key.isEmpty()) {
+        return !keys.isEmpty();
+      }
+
+      for (String changedKey : keys) {
+        if (changedKey.equals(key) || changedKey.startsWith(key + ".") || key.startsWith(changedKey + ".")) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+    private static final class ChangedKeys {
+      private final Map<?, ?> since;
+      private final Set<String> keys;
+
+      ChangedKeys(Map<?, ?> since, Set<String> keys) {
+        this.since = since;
+        this.keys = keys;
+      }
+    }
   }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source;
+
+import org.cfg4j.source.reload.strategy.WatchReloadStrategy;
+
+/**
+ * {@link ConfigurationSource} able to notify about changes of its configuration, so that it can be reloaded on
+ * demand (see {@link WatchReloadStrategy}) rather than polled.
+ */
+public interface WatchableConfigurationSource extends ConfigurationSource {
+
+  /**
+   * Register {@code listener} to be notified when configuration provided by this source may have changed. Sources
+   * start watching for changes when the first listener is added. Notifications may be spurious and may be delivered
+   * on any thread.
+   *
+   * @param listener listener to register
+   */
+  void addChangeListener(ChangeListener listener);
+
+  /**
+   * De-register {@code listener}. It won't be notified about changes anymore.
+   *
+   * @param listener listener to de-register
+   */
+  void removeChangeListener(ChangeListener listener);
+
+  /**
+   * Receives change notifications from a {@link WatchableConfigurationSource}.
+   */
+  interface ChangeListener {
+
+    /**
+     * Called when configuration of the source may have changed. Should return quickly.
+     */
+    void onChange();
+
+  }
+}
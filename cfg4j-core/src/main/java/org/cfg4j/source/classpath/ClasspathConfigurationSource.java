@@ -17,6 +17,7 @@ package org.cfg4j.source.classpath;
 
 import static java.util.Objects.requireNonNull;
 
+import org.cfg4j.source.ConfigTree;
 import org.cfg4j.source.ConfigurationSource;
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.MissingEnvironmentException;
@@ -37,7 +38,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 
 /**
  * {@link ConfigurationSource} reading configuration from classpath files.
@@ -105,7 +105,7 @@ public class ClasspathConfigurationSource implements ConfigurationSource {
    */
   @Override
   public ConfigurationState getConfiguration(Environment environment) {
-    Map<String, Properties> properties = new HashMap<>();
+    Map<String, ConfigTree> trees = new HashMap<>();
 
     Path pathPrefix = Paths.get(environment.getName());
 
@@ -127,14 +127,14 @@ public class ClasspathConfigurationSource implements ConfigurationSource {
         }
 
         PropertiesProvider provider = propertiesProviderSelector.getProvider(path.getFileName().toString());
-        properties.put(path.getFileName().toString(),provider.getProperties(input));
+        trees.put(path.getFileName().toString(), provider.getTree(input));
 
       } catch (IOException e) {
         throw new IllegalStateException("Unable to load properties from classpath: " + path, e);
       }
     }
 
-    return new ConfigurationState(properties, true);
+    return ConfigurationState.ofTrees(trees, true);
   }
 
   @Override
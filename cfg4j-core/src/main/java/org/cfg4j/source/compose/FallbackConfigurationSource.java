@@ -21,36 +21,101 @@ import org.cfg4j.source.ConfigurationSource;
 import org.cfg4j.source.SourceCommunicationException;
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.MissingEnvironmentException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Map;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  * Combines multiple {@link ConfigurationSource}s in a fallback chain. When one of the sources is not available
  * another one is used for providing configuration.
+ * <p>
+ * Each source is guarded by a circuit breaker. A source that fails is skipped by subsequent calls until the
+ * half-open interval elapses, after which a single call probes it again. Optionally the configuration served last
+ * is remembered and served again (as unchanged) when none of the sources is available.
  */
 public class FallbackConfigurationSource implements ConfigurationSource {
 
+  private static final Logger LOG = LoggerFactory.getLogger(FallbackConfigurationSource.class);
+
   private final ConfigurationSource[] sources;
+  private final Breaker[] breakers;
+  private final long halfOpenIntervalNanos;
+  private final LongSupplier nanoTime;
+  private final boolean serveLastGood;
+  private final ConcurrentMap<String, Integer> lastServedBy;
 
   /**
-   * Create a fallback chain of {@link ConfigurationSource}s
+   * Create a fallback chain of {@link ConfigurationSource}s. Failing sources are tried again on every call.
    *
    * @param sources configuration sources to use
    */
   public FallbackConfigurationSource(ConfigurationSource... sources) {
+    this(0, TimeUnit.NANOSECONDS, false, sources);
+  }
+
+  /**
+   * Create a fallback chain of {@link ConfigurationSource}s. A source that fails is skipped for
+   * {@code halfOpenInterval} before being tried again.
+   *
+   * @param halfOpenInterval time to skip a failing source for
+   * @param timeUnit         time unit of {@code halfOpenInterval}
+   * @param sources          configuration sources to use
+   */
+  public FallbackConfigurationSource(long halfOpenInterval, TimeUnit timeUnit, ConfigurationSource... sources) {
+    this(halfOpenInterval, timeUnit, false, sources);
+  }
+
+  /**
+   * Create a fallback chain of {@link ConfigurationSource}s. A source that fails is skipped for
+   * {@code halfOpenInterval} before being tried again.
+   *
+   * @param halfOpenInterval time to skip a failing source for
+   * @param timeUnit         time unit of {@code halfOpenInterval}
+   * @param serveLastGood    whether to serve the configuration served last when all sources that have
+   *                         {@code environment} fail
+   * @param sources          configuration sources to use
+   */
+  public FallbackConfigurationSource(long halfOpenInterval, TimeUnit timeUnit, boolean serveLastGood,
+                                     ConfigurationSource... sources) {
+    this(halfOpenInterval, timeUnit, System::nanoTime, serveLastGood, sources);
+  }
+
+  FallbackConfigurationSource(long halfOpenInterval, TimeUnit timeUnit, LongSupplier nanoTime, boolean serveLastGood,
+                              ConfigurationSource... sources) {
     this.sources = requireNonNull(sources);
+    this.halfOpenIntervalNanos = requireNonNull(timeUnit).toNanos(halfOpenInterval);
+    this.nanoTime = requireNonNull(nanoTime);
+    this.serveLastGood = serveLastGood;
 
-    for (ConfigurationSource source : sources) {
-      requireNonNull(source);
+    if (halfOpenInterval < 0) {
+      throw new IllegalArgumentException("Half-open interval can't be negative: " + halfOpenInterval);
+    }
+
+    breakers = new Breaker[sources.length];
+    for (int i = 0; i < sources.length; i++) {
+      requireNonNull(sources[i]);
+      breakers[i] = new Breaker();
     }
+
+    lastServedBy = new ConcurrentHashMap<>();
   }
 
   /**
    * Get configuration set for a given {@code environment} from this source in a form of {@link Properties}.
    * The configuration set is a result of the first {@link ConfigurationSource#getConfiguration(Environment)}
-   * call to underlying sources that succeeds. Sources are called in a provided order.
+   * call to underlying sources that succeeds. Sources are called in a provided order, skipping ones whose
+   * circuit breaker is open. When no source succeeds, at least one of them failed (rather than missed
+   * {@code environment}) and serving last good configuration is enabled, the configuration served last for
+   * {@code environment} is returned.
    *
    * @param environment environment to use
    * @return configuration set for {@code environment} from the first source that works
@@ -59,19 +124,46 @@ public class FallbackConfigurationSource implements ConfigurationSource {
    */
   @Override
   public ConfigurationState getConfiguration(Environment environment) {
+    String environmentKey = environment.getName() == null ? "" : environment.getName();
 
     boolean allMissEnvironment = true;
+    List<Integer> skipped = new ArrayList<>();
+
+    for (int i = 0; i < sources.length; i++) {
+      if (!breakers[i].allowRequest(nanoTime.getAsLong(), halfOpenIntervalNanos)) {
+        skipped.add(i);
+        allMissEnvironment = false;
+        continue;
+      }
 
-    for (ConfigurationSource source : sources) {
       try {
-        return source.getConfiguration(environment);
+        return fetch(i, environment, environmentKey);
       } catch (MissingEnvironmentException e) {
         // NOP
-      } catch (IllegalStateException e) {
+      } catch (IllegalStateException | SourceCommunicationException e) {
         allMissEnvironment = false;
       }
     }
 
+    Integer servedBy = lastServedBy.get(environmentKey);
+    if (serveLastGood && !allMissEnvironment && servedBy != null) {
+      ConfigurationState lastGood = breakers[servedBy].lastGood.get(environmentKey);
+      if (lastGood != null) {
+        LOG.warn("No source available for environment " + environmentKey + ", serving last known configuration from "
+            + sources[servedBy]);
+        return lastGood.withStateChanged(false);
+      }
+    }
+
+    // Nothing to serve, try skipped sources after all
+    for (int i : skipped) {
+      try {
+        return fetch(i, environment, environmentKey);
+      } catch (MissingEnvironmentException | IllegalStateException | SourceCommunicationException e) {
+        // NOP
+      }
+    }
+
     if (allMissEnvironment) {
       throw new MissingEnvironmentException(environment.getName());
     }
@@ -79,6 +171,34 @@ public class FallbackConfigurationSource implements ConfigurationSource {
     throw new IllegalStateException();
   }
 
+  private ConfigurationState fetch(int index, Environment environment, String environmentKey) {
+    Breaker breaker = breakers[index];
+    ConfigurationState state;
+
+    try {
+      state = sources[index].getConfiguration(environment);
+    } catch (MissingEnvironmentException e) {
+      breaker.onSuccess();
+      throw e;
+    } catch (IllegalStateException | SourceCommunicationException e) {
+      breaker.onFailure(nanoTime.getAsLong(), halfOpenIntervalNanos);
+      LOG.debug("Source " + sources[index] + " failed", e);
+      throw e;
+    }
+
+    breaker.onSuccess();
+    if (serveLastGood) {
+      breaker.lastGood.put(environmentKey, state);
+    }
+
+    Integer previous = lastServedBy.put(environmentKey, index);
+    if (previous != null && previous == index) {
+      return state;
+    }
+
+    return state.withStateChanged(true);
+  }
+
   @Override
   public void init() {
     boolean atLeastOneSuccess = false;
@@ -97,6 +217,36 @@ public class FallbackConfigurationSource implements ConfigurationSource {
     }
   }
 
+  /**
+   * Circuit breaker of a single source along with the last configuration successfully fetched from it.
+   * {@code openUntil} is zero when the breaker is closed.
+   */
+  private static final class Breaker {
+
+    private final AtomicLong openUntil = new AtomicLong();
+    private final ConcurrentMap<String, ConfigurationState> lastGood = new ConcurrentHashMap<>();
+
+    /**
+     * @return true when the breaker is closed, or when it's open, its interval elapsed and the caller won
+     * the right to probe the source (others keep skipping it for another interval)
+     */
+    boolean allowRequest(long now, long halfOpenIntervalNanos) {
+      long until = openUntil.get();
+      return until == 0 || (now - until >= 0 && openUntil.compareAndSet(until, (now + halfOpenIntervalNanos) | 1));
+    }
+
+    void onSuccess() {
+      openUntil.set(0);
+    }
+
+    void onFailure(long now, long halfOpenIntervalNanos) {
+      if (halfOpenIntervalNanos > 0) {
+        // Avoid zero, which means "closed"
+        openUntil.set((now + halfOpenIntervalNanos) | 1);
+      }
+    }
+  }
+
   @Override
   public String toString() {
     return "FallbackConfigurationSource{" +
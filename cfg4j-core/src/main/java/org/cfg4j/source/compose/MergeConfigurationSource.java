@@ -17,33 +17,73 @@ package org.cfg4j.source.compose;
 
 import static java.util.Objects.requireNonNull;
 
+import org.cfg4j.source.ConfigTree;
 import org.cfg4j.source.ConfigurationSource;
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.MissingEnvironmentException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Merges multiple {@link ConfigurationSource}s. In case of key collision last-match wins merge strategy is used.
+ * <p>
+ * Underlying sources can be queried concurrently on a provided {@link Executor}, each with a timeout. The merged
+ * configuration is marked as changed only when data of at least one of the underlying sources differs from the data
+ * merged previously. Otherwise the previously merged configuration is returned without merging again. Change flags
+ * of the underlying sources aren't relied on since they may have been consumed by other readers of those sources.
  */
 public class MergeConfigurationSource implements ConfigurationSource {
 
   private final ConfigurationSource[] sources;
+  private final Executor executor;
+  private final long timeoutNanos;
+  private final ConcurrentMap<String, Merged> lastMerged;
 
   /**
-   * Create a merge of provided {@link ConfigurationSource}s
+   * Create a merge of provided {@link ConfigurationSource}s. Sources are queried sequentially in the calling thread.
    *
    * @param sources configuration sources to merge
    */
   public MergeConfigurationSource(ConfigurationSource... sources) {
+    this(Runnable::run, Long.MAX_VALUE, TimeUnit.NANOSECONDS, sources);
+  }
+
+  /**
+   * Create a merge of provided {@link ConfigurationSource}s. Sources are queried concurrently using {@code executor}.
+   *
+   * @param executor executor used for querying underlying sources
+   * @param timeout  maximum time to wait for each of the underlying sources
+   * @param timeUnit time unit of {@code timeout}
+   * @param sources  configuration sources to merge
+   */
+  public MergeConfigurationSource(Executor executor, long timeout, TimeUnit timeUnit, ConfigurationSource... sources) {
+    this.executor = requireNonNull(executor);
+    this.timeoutNanos = requireNonNull(timeUnit).toNanos(timeout);
     this.sources = requireNonNull(sources);
 
+    if (timeout <= 0) {
+      throw new IllegalArgumentException("Timeout has to be positive: " + timeout);
+    }
+
     for (ConfigurationSource source : sources) {
       requireNonNull(source);
     }
+
+    lastMerged = new ConcurrentHashMap<>();
   }
 
   /**
@@ -55,17 +95,104 @@ public class MergeConfigurationSource implements ConfigurationSource {
    * @return configuration set for {@code environment}
    * @throws MissingEnvironmentException when requested environment couldn't be found
    * @throws IllegalStateException       when unable to fetch configuration from one of the underlying sources
+   *                                     (including when it didn't respond in time)
    */
   @Override
   public ConfigurationState getConfiguration(Environment environment) {
-    Map<String,Properties> properties = new HashMap<>();
+    List<ConfigurationState> states = fetchAll(environment);
+
+    List<Map<String, Map<?, ?>>> files = new ArrayList<>(states.size());
+    for (ConfigurationState state : states) {
+      Map<String, Map<?, ?>> sourceFiles = new HashMap<>();
+      for (String fileName : state.getFileNames()) {
+        sourceFiles.put(fileName, state.getFile(fileName));
+      }
+      files.add(sourceFiles);
+    }
+
+    Merged previous = lastMerged.get(environment.getName());
+    if (previous != null && previous.files.equals(files)) {
+      return ConfigurationState.ofTrees(previous.trees, false);
+    }
+
+    Map<String, ConfigTree> trees = new HashMap<>();
+    Map<String, Integer> suppliers = new HashMap<>();
+    for (int i = 0; i < states.size(); i++) {
+      for (Map.Entry<String, ConfigTree> entry : states.get(i).getTrees().entrySet()) {
+        trees.put(entry.getKey(), entry.getValue());
+        suppliers.put(entry.getKey(), i);
+      }
+    }
+
+    lastMerged.put(environment.getName(), new Merged(files, trees, suppliers));
+
+    ConfigurationState merged = ConfigurationState.ofTrees(trees, true);
+    if (previous != null) {
+      forwardChangedKeys(merged, states, files, suppliers, previous);
+    }
+
+    return merged;
+  }
+
+  private List<ConfigurationState> fetchAll(Environment environment) {
+    long deadline = System.nanoTime() + timeoutNanos;
 
+    List<CompletableFuture<ConfigurationState>> futures = new ArrayList<>(sources.length);
     for (ConfigurationSource source : sources) {
-      ConfigurationState sourceProperties = source.getConfiguration(environment);
-      properties.putAll(sourceProperties.getData());
+      futures.add(CompletableFuture.supplyAsync(() -> source.getConfiguration(environment), executor));
     }
 
-    return new ConfigurationState(properties, true);
+    List<ConfigurationState> states = new ArrayList<>(sources.length);
+    try {
+      for (int i = 0; i < sources.length; i++) {
+        long remaining = Math.max(deadline - System.nanoTime(), 0);
+        try {
+          states.add(futures.get(i).get(timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : remaining,
+              TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+          throw new IllegalStateException("Source " + sources[i] + " didn't respond in time", e);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while fetching configuration", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Unable to fetch configuration", e.getCause());
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+
+    return states;
+  }
+
+  /**
+   * Pass changed keys reported by underlying sources on to the merged state. Keys of a source are only forwarded
+   * for files still supplied by the same source, and only when they are relative to the content of the file merged
+   * previously, so they are relative to the previously merged tree as well.
+   */
+  private static void forwardChangedKeys(ConfigurationState merged, List<ConfigurationState> states,
+                                         List<Map<String, Map<?, ?>>> files, Map<String, Integer> suppliers,
+                                         Merged previous) {
+    for (Map.Entry<String, Integer> entry : suppliers.entrySet()) {
+      String fileName = entry.getKey();
+      int supplier = entry.getValue();
+      if (!Integer.valueOf(supplier).equals(previous.suppliers.get(fileName))) {
+        continue;
+      }
+
+      Map<?, ?> lastSeen = previous.files.get(supplier).get(fileName);
+      Map<?, ?> current = files.get(supplier).get(fileName);
+      Set<String> keys = current == lastSeen
+          ? Collections.<String>emptySet()
+          : states.get(supplier).getChangedKeys(fileName, lastSeen);
+
+      if (keys != null) {
+        merged.setChangedKeys(fileName, previous.trees.get(fileName), keys);
+      }
+    }
   }
 
   @Override
@@ -81,4 +208,21 @@ public class MergeConfigurationSource implements ConfigurationSource {
         "sources=" + Arrays.toString(sources) +
         '}';
   }
+
+  /**
+   * Result of a merge along with the data of each underlying source it was merged from and the index of the source
+   * each merged file was taken from.
+   */
+  private static final class Merged {
+
+    private final List<Map<String, Map<?, ?>>> files;
+    private final Map<String, ConfigTree> trees;
+    private final Map<String, Integer> suppliers;
+
+    Merged(List<Map<String, Map<?, ?>>> files, Map<String, ConfigTree> trees, Map<String, Integer> suppliers) {
+      this.files = files;
+      this.trees = trees;
+      this.suppliers = suppliers;
+    }
+  }
 }
@@ -13,54 +13,71 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.cfg4j.source.context.propertiesprovider;
 
+import org.cfg4j.source.ConfigTree;
+
 import java.util.Collection;
-import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Base of {@link PropertiesProvider}s for structured formats. Documents are either flattened, which exposes every
+ * nested value under its dotted path as well (e.g. {@code some.setting}), or kept structured, in which case only
+ * top-level keys are stored and dotted paths are resolved on demand (see {@link ConfigTree#find(String)}).
+ */
 abstract class FormatBasedPropertiesProvider implements PropertiesProvider {
 
+  private final boolean flattening;
+
+  FormatBasedPropertiesProvider(boolean flattening) {
+    this.flattening = flattening;
+  }
+
+  /**
+   * @return true if documents are flattened, false if they're kept structured
+   */
+  boolean isFlattening() {
+    return flattening;
+  }
+
   /**
    * Flatten multi-level map.
    */
-  @SuppressWarnings("unchecked")
   Map<String, Object> flatten(Map<String, Object> source) {
     Map<String, Object> result = new LinkedHashMap<>();
+    flattenInto(result, "", source);
+    return result;
+  }
 
-    for (String key : source.keySet()) {
-      Object value = source.get(key);
+  private static void flattenInto(Map<String, Object> result, String prefix, Map<?, ?> source) {
+    for (Map.Entry<?, ?> entry : source.entrySet()) {
+      String key = prefix + entry.getKey();
+      Object value = entry.getValue();
 
-      result.put(key, value);
+      if (value instanceof Collection && !(value instanceof List)) {
+        result.put(key, join((Collection<?>) value));
+      } else {
+        result.put(key, value);
+      }
 
       if (value instanceof Map) {
-        Map<String, Object> subMap = flatten((Map<String, Object>) value);
-
-        for (String subkey : subMap.keySet()) {
-          result.put(key + "." + subkey, subMap.get(subkey));
-        }
-      } else if (value instanceof Collection && !(value instanceof List)) {
-        StringBuilder joiner = new StringBuilder();
-        String separator = "";
-
-        for (Object element : ((Collection) value)) {
-          Map<String, Object> subMap = flatten(Collections.singletonMap(key, element));
-          joiner
-              .append(separator)
-              .append(subMap.entrySet().iterator().next().getValue().toString());
+        flattenInto(result, key + ".", (Map<?, ?>) value);
+      }
+    }
+  }
 
-          separator = ",";
-        }
+  private static String join(Collection<?> collection) {
+    StringBuilder joiner = new StringBuilder();
+    String separator = "";
 
-        result.put(key, joiner.toString());
-      } else {
-        result.put(key, value);
-      }
+    for (Object element : collection) {
+      boolean nested = element instanceof Collection && !(element instanceof List);
+      joiner.append(separator).append(nested ? join((Collection<?>) element) : element);
+      separator = ",";
     }
 
-    return result;
+    return joiner.toString();
   }
 }
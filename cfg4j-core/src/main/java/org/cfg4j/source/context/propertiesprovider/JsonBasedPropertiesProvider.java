@@ -13,32 +13,56 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.cfg4j.source.context.propertiesprovider;
 
 import static java.util.Objects.requireNonNull;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.reflect.TypeToken;
-import java.util.List;
-import org.json.JSONArray;
-import org.json.JSONObject;
-import org.json.JSONTokener;
+import com.google.gson.stream.JsonReader;
+import org.cfg4j.source.ConfigTree;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
 /**
  * {@link PropertiesProvider} that interprets given stream as JSON file.
+ * <p>
+ * The document is read in a single streaming pass straight into a {@link ConfigTree}: objects become nested trees,
+ * arrays become lists, integral numbers become {@link Integer}, {@link Long} or {@link BigInteger} (whichever fits)
+ * and other numbers become {@link Double}. Unless disabled at construction time, nested values are additionally
+ * exposed under dotted keys (e.g. {@code some.setting}).
  */
 public class JsonBasedPropertiesProvider extends FormatBasedPropertiesProvider {
 
   /**
-   * Get {@link Properties} for a given {@code inputStream} treating it as a JSON file.
+   * Construct provider exposing nested values under dotted keys as well.
+   */
+  public JsonBasedPropertiesProvider() {
+    this(true);
+  }
+
+  /**
+   * Construct provider.
+   *
+   * @param flatten whether to expose nested values under dotted keys as well, when false documents are kept
+   *                structured and dotted paths are resolved on demand (see {@link ConfigTree#find(String)})
+   */
+  public JsonBasedPropertiesProvider(boolean flatten) {
+    super(flatten);
+  }
+
+  /**
+   * Get {@link Properties} for a given {@code inputStream} treating it as a JSON file. Keys with {@code null} values
+   * are omitted. When documents are kept structured the returned properties resolve dotted keys on demand
+   * (see {@link ConfigTree#newProperties()}).
    *
    * @param inputStream input stream representing JSON file
    * @return properties representing values from {@code inputStream}
@@ -46,91 +70,126 @@ public class JsonBasedPropertiesProvider extends FormatBasedPropertiesProvider {
    */
   @Override
   public Properties getProperties(InputStream inputStream) {
-    requireNonNull(inputStream);
+    if (!isFlattening()) {
+      return getTree(inputStream).newProperties();
+    }
 
     Properties properties = new Properties();
 
-    try {
-
-      JSONTokener tokener = new JSONTokener(inputStream);
-      if (tokener.end()) {
-        return properties;
-      }
-      if (tokener.nextClean() == '"') {
-        tokener.back();
-        properties.put("content", tokener.nextValue().toString());
-      } else {
-        tokener.back();
-        JSONObject obj = new JSONObject(tokener);
-
-        Map<String, Object> yamlAsMap = convertToMap2(obj);
-        properties.putAll(flatten(yamlAsMap));
+    for (Map.Entry<String, Object> entry : read(inputStream).entrySet()) {
+      if (entry.getValue() != null) {
+        properties.put(entry.getKey(), entry.getValue());
       }
-
-      return properties;
-
-    } catch (Exception e) {
-      throw new IllegalStateException("Unable to load json configuration from provided stream", e);
     }
+
+    return properties;
   }
 
   /**
-   * Convert given Json document to a multi-level map.
+   * Get {@link ConfigTree} for a given {@code inputStream} treating it as a JSON file.
+   *
+   * @param inputStream input stream representing JSON file
+   * @return tree representing values from {@code inputStream}
+   * @throws IllegalStateException when unable to read the tree
    */
-  @SuppressWarnings("unchecked")
-  private Map<String, Object> convertToMap(Object jsonDocument) {
-    Map<String, Object> jsonMap = new LinkedHashMap<>();
-
-    // Document is a text block
-    if (!(jsonDocument instanceof JSONObject)) {
-      jsonMap.put("content", jsonDocument);
-      return jsonMap;
-    }
+  @Override
+  public ConfigTree getTree(InputStream inputStream) {
+    Map<String, Object> document = read(inputStream);
+    return document instanceof ConfigTree ? (ConfigTree) document : ConfigTree.of(document);
+  }
 
-    JSONObject obj = (JSONObject) jsonDocument;
-    for (String key : obj.keySet()) {
-      Object value = obj.get(key);
+  private Map<String, Object> read(InputStream inputStream) {
+    requireNonNull(inputStream);
 
-      if (value instanceof JSONObject) {
-        value = convertToMap(value);
-      } else if (value instanceof JSONArray) {
-        ArrayList<Map<String, Object>> collection = new ArrayList<>();
+    try {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+      int first = firstNonWhitespace(reader);
 
-        for (Object element : ((JSONArray) value)) {
-          collection.add(convertToMap(element));
-        }
+      if (first == -1) {
+        return ConfigTree.EMPTY;
+      }
 
-        value = collection;
+      JsonReader jsonReader = new JsonReader(reader);
+      jsonReader.setLenient(true);
+
+      if (first == '"') {
+        return ConfigTree.builder().put("content", jsonReader.nextString()).build();
+      }
+
+      if (first != '{') {
+        throw new IllegalStateException("JSON document has to start with '{' or '\"'");
       }
 
-      jsonMap.put(key, value);
+      ConfigTree document = readObject(jsonReader);
+      return isFlattening() ? flatten(document) : document;
+
+    } catch (IOException | RuntimeException e) {
+      throw new IllegalStateException("Unable to load json configuration from provided stream", e);
     }
-    return jsonMap;
+  }
 
+  /**
+   * Skip leading whitespace leaving the reader positioned at the first other character.
+   *
+   * @return the first other character or -1 when there's none
+   */
+  private static int firstNonWhitespace(Reader reader) throws IOException {
+    while (true) {
+      reader.mark(1);
+      int c = reader.read();
+      if (c == -1 || !Character.isWhitespace(c)) {
+        reader.reset();
+        return c;
+      }
+    }
   }
 
-  private Map<String, Object> convertToMap2(Object jsonDocument) {
-    Map<String, Object> jsonMap = new LinkedHashMap<>();
+  private static ConfigTree readObject(JsonReader reader) throws IOException {
+    ConfigTree.Builder tree = ConfigTree.builder();
 
-    if (jsonDocument instanceof JSONObject) {
-      JSONObject obj = (JSONObject) jsonDocument;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      tree.put(reader.nextName(), readValue(reader));
+    }
+    reader.endObject();
 
-      for (String key : obj.keySet()) {
-        Object value = obj.get(key);
+    return tree.build();
+  }
 
-        if (value instanceof JSONObject) {
-          jsonMap.put(key, convertToMap2(value));
-        }
-        else if (value instanceof JSONArray) {
-          ArrayList<Object> array = new Gson().fromJson(value.toString(), new TypeToken<List<Object>>(){}.getType());
-          jsonMap.put(key, array);
-        }
-        else {
-          jsonMap.put(key, value);
+  private static Object readValue(JsonReader reader) throws IOException {
+    switch (reader.peek()) {
+      case BEGIN_OBJECT:
+        return readObject(reader);
+      case BEGIN_ARRAY:
+        List<Object> list = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          list.add(readValue(reader));
         }
+        reader.endArray();
+        return list;
+      case NUMBER:
+        return toNumber(reader.nextString());
+      case BOOLEAN:
+        return reader.nextBoolean();
+      case NULL:
+        reader.nextNull();
+        return null;
+      default:
+        return reader.nextString();
+    }
+  }
+
+  private static Object toNumber(String literal) {
+    if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0) {
+      try {
+        long value = Long.parseLong(literal);
+        return value == (int) value ? (Object) (int) value : (Object) value;
+      } catch (NumberFormatException e) {
+        return new BigInteger(literal);
       }
     }
 
-    return jsonMap;
+    return Double.valueOf(literal);
   }
 }
@@ -16,11 +16,15 @@
 
 package org.cfg4j.source.context.propertiesprovider;
 
+import org.cfg4j.source.ConfigTree;
+import org.cfg4j.utils.ByteBufferInputStream;
+
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Properties;
 
 /**
- * Transforms {@link InputStream} into {@link Properties}.
+ * Transforms {@link InputStream} (or {@link ByteBuffer}) into {@link Properties} or an immutable {@link ConfigTree}.
  */
 public interface PropertiesProvider {
 
@@ -33,4 +37,42 @@ public interface PropertiesProvider {
    */
   Properties getProperties(InputStream inputStream);
 
+  /**
+   * Get {@link Properties} for remaining bytes of a given {@code buffer}, e.g. file content passed by
+   * {@link org.cfg4j.utils.FileUtils#readFile(java.nio.file.Path, org.cfg4j.utils.FileUtils.ContentReader)}.
+   * The buffer itself is not modified. Default implementation streams the buffer content to
+   * {@link #getProperties(InputStream)} through a {@link ByteBufferInputStream}.
+   *
+   * @param buffer buffer to convert
+   * @return properties representing values from {@code buffer}
+   * @throws IllegalStateException when unable to read properties
+   */
+  default Properties getProperties(ByteBuffer buffer) {
+    return getProperties(new ByteBufferInputStream(buffer.duplicate()));
+  }
+
+  /**
+   * Get an immutable {@link ConfigTree} for a given {@code inputStream}. Default implementation converts the result
+   * of {@link #getProperties(InputStream)}.
+   *
+   * @param inputStream input stream to convert
+   * @return tree representing values from {@code inputStream}
+   * @throws IllegalStateException when unable to read the tree
+   */
+  default ConfigTree getTree(InputStream inputStream) {
+    return ConfigTree.of(getProperties(inputStream));
+  }
+
+  /**
+   * Get an immutable {@link ConfigTree} for remaining bytes of a given {@code buffer}. The buffer itself is not
+   * modified.
+   *
+   * @param buffer buffer to convert
+   * @return tree representing values from {@code buffer}
+   * @throws IllegalStateException when unable to read the tree
+   */
+  default ConfigTree getTree(ByteBuffer buffer) {
+    return getTree(new ByteBufferInputStream(buffer.duplicate()));
+  }
+
 }
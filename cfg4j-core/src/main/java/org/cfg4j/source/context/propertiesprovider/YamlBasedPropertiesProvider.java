@@ -18,25 +18,52 @@ package org.cfg4j.source.context.propertiesprovider;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.List;
+import org.cfg4j.source.ConfigTree;
+import org.cfg4j.utils.LazyProperties;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
 import org.yaml.snakeyaml.reader.UnicodeReader;
-import org.yaml.snakeyaml.scanner.ScannerException;
+import org.yaml.snakeyaml.resolver.Resolver;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.LinkedHashMap;
+import java.io.StringReader;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
 
 /**
  * {@link PropertiesProvider} that interprets given stream as YAML file.
+ * <p>
+ * The document is only parsed into events, which validates its syntax and locates the source text of each top-level
+ * value. A value is composed and constructed from its text when its key is first read from the returned
+ * {@link ConfigTree} (or its {@link LazyProperties} adapter), so subtrees that are never bound cost neither
+ * construction time nor memory for their node graphs. Documents whose top-level values can't be read on their own
+ * (aliases, merge keys, non-string or complex top-level keys, flow style or non-mapping documents) are constructed
+ * eagerly.
  */
 public class YamlBasedPropertiesProvider extends FormatBasedPropertiesProvider {
 
+  /**
+   * Construct provider. Documents are kept structured, dotted paths are resolved on demand (see
+   * {@link ConfigTree#find(String)}).
+   */
+  public YamlBasedPropertiesProvider() {
+    super(false);
+  }
+
   /**
    * Get {@link Properties} for a given {@code inputStream} treating it as a YAML file.
    *
@@ -46,80 +73,157 @@ public class YamlBasedPropertiesProvider extends FormatBasedPropertiesProvider {
    */
   @Override
   public Properties getProperties(InputStream inputStream) {
+    return getTree(inputStream).newProperties();
+  }
+
+  /**
+   * Get {@link ConfigTree} for a given {@code inputStream} treating it as a YAML file. Non-string keys are converted
+   * to strings.
+   *
+   * @param inputStream input stream representing YAML file
+   * @return tree representing values from {@code inputStream}
+   * @throws IllegalStateException when unable to read the tree
+   */
+  @Override
+  public ConfigTree getTree(InputStream inputStream) {
     requireNonNull(inputStream);
 
-    Yaml yaml = new Yaml();
+    try {
+      String document = read(inputStream);
+
+      ConfigTree.Builder tree = ConfigTree.builder();
+      if (putLazily(document, tree)) {
+        return tree.build();
+      }
+
+      ConfigTree.Builder eagerTree = ConfigTree.builder();
+      Object object = new Yaml().load(document);
+      if (object instanceof Map) {
+        ((Map<?, ?>) object).forEach((key, value) -> eagerTree.put(String.valueOf(key), value));
+      }
+
+      return eagerTree.build();
+
+    } catch (IOException | YAMLException e) {
+      throw new IllegalStateException("Unable to load yaml configuration from provided stream", e);
+    }
+  }
 
-    Properties properties = new Properties();
+  private static String read(InputStream inputStream) throws IOException {
+    StringBuilder document = new StringBuilder();
+    char[] buffer = new char[8192];
 
     try (Reader reader = new UnicodeReader(inputStream)) {
+      int count;
+      while ((count = reader.read(buffer)) > 0) {
+        document.append(buffer, 0, count);
+      }
+    }
 
-      Object object = yaml.load(reader);
+    return document.toString();
+  }
 
-      if (object != null) {
-        Map<String, Object> yamlAsMap = convertToMap2(object);
-        properties.putAll(yamlAsMap);
-//        properties.putAll(flatten(yamlAsMap));
+  /**
+   * Put each top-level value of a block mapping {@code document} to {@code tree} as a lazy value constructed from
+   * the value's source text.
+   *
+   * @return false when the document has to be constructed eagerly
+   */
+  private static boolean putLazily(String document, ConfigTree.Builder tree) {
+    Iterator<Event> events = new Yaml().parse(new StringReader(document)).iterator();
+    Resolver resolver = new Resolver();
+
+    events.next();
+    Event event = events.next();
+    if (event instanceof StreamEndEvent) {
+      return true;
+    }
+
+    Event root = events.next();
+    if (!(root instanceof MappingStartEvent) || Boolean.TRUE.equals(((MappingStartEvent) root).getFlowStyle())) {
+      return false;
+    }
+
+    while (!((event = events.next()) instanceof MappingEndEvent)) {
+      if (!isStringKey(event, resolver)) {
+        return false;
       }
+      String key = ((ScalarEvent) event).getValue();
 
-      return properties;
+      Event first = events.next();
+      Event last = skipNode(first, events);
+      if (last == null) {
+        return false;
+      }
 
-    } catch (IOException | ScannerException e) {
-      throw new IllegalStateException("Unable to load yaml configuration from provided stream", e);
+      int start = valueStart(document, first.getStartMark().getIndex());
+      int end = last.getEndMark().getIndex();
+      tree.putLazy(key, () -> construct(document.substring(start, end)));
     }
+
+    // Let eager construction report multiple documents
+    events.next();
+    return !(events.next() instanceof DocumentStartEvent);
+  }
+
+  private static boolean isStringKey(Event event, Resolver resolver) {
+    if (!(event instanceof ScalarEvent)) {
+      return false;
+    }
+
+    ScalarEvent scalar = (ScalarEvent) event;
+    if (scalar.getTag() != null) {
+      return Tag.STR.getValue().equals(scalar.getTag());
+    }
+
+    return Tag.STR.equals(resolver.resolve(NodeId.scalar, scalar.getValue(),
+        scalar.getImplicit().canOmitTagInPlainScalar()));
   }
 
   /**
-   * Convert given Yaml document to a multi-level map.
+   * Skip events of the node starting with {@code first}.
+   *
+   * @return the last event of the node, {@code null} when the node contains an alias
+   */
+  private static Event skipNode(Event first, Iterator<Event> events) {
+    Event event = first;
+    int depth = 0;
+
+    do {
+      if (event instanceof AliasEvent) {
+        return null;
+      } else if (event instanceof CollectionStartEvent) {
+        depth++;
+      } else if (event instanceof CollectionEndEvent) {
+        depth--;
+      }
+
+      if (depth > 0) {
+        event = events.next();
+      }
+    } while (depth > 0);
+
+    return event;
+  }
+
+  /**
+   * Block collections are indented relative to their line, so their text starts at the beginning of the line when
+   * nothing else precedes them there.
    */
-  @SuppressWarnings("unchecked")
-//  private Map<String, Object> convertToMap(Object yamlDocument) {
-//
-//    Map<String, Object> yamlMap = new LinkedHashMap<>();
-//
-//    // Document is a text block
-//    if (!(yamlDocument instanceof Map)) {
-//      yamlMap.put("content", yamlDocument);
-//      return yamlMap;
-//    }
-//
-//    for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) yamlDocument).entrySet()) {
-//      Object value = entry.getValue();
-//
-//      if (value instanceof Map) {
-//        value = convertToMap(value);
-//      } else if (value instanceof Collection) {
-//        ArrayList<Map<String, Object>> collection = new ArrayList<>();
-//
-//        for (Object element : ((Collection) value)) {
-//          collection.add(convertToMap(element));
-//        }
-//
-//        value = collection;
-//      }
-//
-//      yamlMap.put(entry.getKey().toString(), value);
-//    }
-//    return yamlMap;
-//  }
-
-  private Map<String, Object> convertToMap2(Object yamlDocument) {
-
-    Map<String, Object> yamlMap = new LinkedHashMap<>();
-
-    if(yamlDocument instanceof Map) {
-      ((Map<String, Object>) yamlDocument).forEach((key, value) -> {
-
-        yamlMap.put(key, value);
-//        if (value instanceof Map) {
-//          yamlMap.put(key, convertToMap2(value));
-//        }
-//        else {
-//          yamlMap.put(key, value);
-//        }
-      });
+  private static int valueStart(String document, int index) {
+    int start = index;
+    while (start > 0 && document.charAt(start - 1) == ' ') {
+      start--;
     }
 
-    return yamlMap;
+    return start == 0 || document.charAt(start - 1) == '\n' ? start : index;
+  }
+
+  private static Object construct(String value) {
+    try {
+      return new Yaml().load(value);
+    } catch (YAMLException e) {
+      throw new IllegalStateException("Unable to construct yaml configuration value", e);
+    }
   }
-}
\ No newline at end of file
+}
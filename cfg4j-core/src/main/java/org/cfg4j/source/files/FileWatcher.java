@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.files;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.Objects.requireNonNull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Watches individual files using a {@link WatchService} registered on their parent directories. The watching
+ * thread (a daemon) is started with the first call to {@link #watch(Path)}. Only changes of the directory entry
+ * of a file are reported, so changes made by replacing a symbolic link elsewhere on its path go unnoticed. Callers
+ * have to detect these (and changes of files whose directory can't be watched) by other means.
+ */
+class FileWatcher implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FileWatcher.class);
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+  private final Consumer<Path> callback;
+  private final Set<Path> files;
+  private final Set<Path> directories;
+  private WatchService watchService;
+  private boolean closed;
+
+  /**
+   * Construct watcher calling {@code callback} with the absolute path of each watched file that got created,
+   * modified or deleted. The callback runs on the watching thread.
+   *
+   * @param callback callback to notify about changed files
+   */
+  FileWatcher(Consumer<Path> callback) {
+    this.callback = requireNonNull(callback);
+    files = ConcurrentHashMap.newKeySet();
+    directories = ConcurrentHashMap.newKeySet();
+  }
+
+  /**
+   * Start watching {@code file}. Does nothing when the file is already watched.
+   *
+   * @param file file to watch
+   * @return true if the file is watched, false if its directory couldn't be watched
+   */
+  boolean watch(Path file) {
+    Path absolute = file.toAbsolutePath().normalize();
+    Path directory = absolute.getParent();
+    if (directory == null) {
+      return false;
+    }
+
+    if (directories.contains(directory)) {
+      files.add(absolute);
+      return true;
+    }
+
+    synchronized (this) {
+      if (closed) {
+        return false;
+      }
+
+      try {
+        if (watchService == null) {
+          watchService = FileSystems.getDefault().newWatchService();
+          Thread thread = new Thread(this::run, "cfg4j-file-watcher-" + THREAD_COUNTER.incrementAndGet());
+          thread.setDaemon(true);
+          thread.start();
+        }
+
+        if (!directories.contains(directory)) {
+          directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+          directories.add(directory);
+        }
+      } catch (IOException e) {
+        LOG.warn("Unable to watch directory: " + directory, e);
+        return false;
+      }
+
+      files.add(absolute);
+      return true;
+    }
+  }
+
+  private void run() {
+    WatchService service;
+    synchronized (this) {
+      service = watchService;
+    }
+
+    try {
+      while (true) {
+        WatchKey key = service.take();
+        Path directory = (Path) key.watchable();
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == OVERFLOW) {
+            LOG.debug("Events lost while watching " + directory + ". Treating all watched files there as changed.");
+            for (Path file : files) {
+              if (directory.equals(file.getParent())) {
+                callback.accept(file);
+              }
+            }
+            continue;
+          }
+
+          Path file = directory.resolve((Path) event.context());
+          if (files.contains(file)) {
+            callback.accept(file);
+          }
+        }
+
+        if (!key.reset()) {
+          LOG.debug("Directory no longer watchable: " + directory);
+          directories.remove(directory);
+          for (Path file : files) {
+            if (directory.equals(file.getParent())) {
+              files.remove(file);
+              callback.accept(file);
+            }
+          }
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      LOG.debug("File watcher stopped");
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    closed = true;
+    if (watchService != null) {
+      watchService.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "FileWatcher{" +
+        "files=" + files +
+        '}';
+  }
+}
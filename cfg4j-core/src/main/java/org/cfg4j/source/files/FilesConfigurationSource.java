@@ -17,7 +17,9 @@ package org.cfg4j.source.files;
 
 import static java.util.Objects.requireNonNull;
 
+import org.cfg4j.source.ConfigTree;
 import org.cfg4j.source.ConfigurationSource;
+import org.cfg4j.source.WatchableConfigurationSource;
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.MissingEnvironmentException;
 import org.cfg4j.source.context.filesprovider.ConfigFilesProvider;
@@ -26,26 +28,56 @@ import org.cfg4j.source.context.propertiesprovider.PropertiesProvider;
 import org.cfg4j.source.context.propertiesprovider.PropertiesProviderSelector;
 import org.cfg4j.source.context.propertiesprovider.PropertyBasedPropertiesProvider;
 import org.cfg4j.source.context.propertiesprovider.YamlBasedPropertiesProvider;
+import org.cfg4j.utils.ByteBufferInputStream;
+import org.cfg4j.utils.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.FileInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
 
 /**
- * {@link ConfigurationSource} reading configuration from local files.
+ * {@link ConfigurationSource} reading configuration from local files. Once a {@link ChangeListener} is added
+ * the files read by {@link #getConfiguration(Environment)} are watched for changes. Call {@link #close()}
+ * to stop watching.
+ * <p>
+ * Only files that changed since they were last read are parsed again. Files are checked using their modification
+ * time and size and, when these differ or a change was reported for a watched file, a checksum of their content.
+ * Watched files are checked as well, since replacing a symbolic link on the path to a file (e.g. when Kubernetes
+ * updates a mounted ConfigMap) isn't reported by the file system. Large files are memory-mapped rather than copied to the heap
+ * (see {@link FileUtils#readFile(Path, FileUtils.ContentReader)}).
  */
-public class FilesConfigurationSource implements ConfigurationSource {
+public class FilesConfigurationSource implements WatchableConfigurationSource, Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FilesConfigurationSource.class);
 
   private final ConfigFilesProvider configFilesProvider;
   private final PropertiesProviderSelector propertiesProviderSelector;
+  private final List<ChangeListener> listeners;
+  private final Set<Path> knownFiles;
+  private final FileWatcher fileWatcher;
+  private final FileUtils fileUtils;
+  private final Set<Path> dirtyFiles;
+  private final ConcurrentMap<Path, FileSnapshot> fileSnapshots;
+  private final ConcurrentMap<Path, Map<String, ConfigTree>> lastConfigurations;
 
   /**
    * Construct {@link ConfigurationSource} backed by files. Uses "application.properties" file
@@ -89,6 +121,16 @@ public class FilesConfigurationSource implements ConfigurationSource {
   public FilesConfigurationSource(ConfigFilesProvider configFilesProvider, PropertiesProviderSelector propertiesProviderSelector) {
     this.configFilesProvider = requireNonNull(configFilesProvider);
     this.propertiesProviderSelector = requireNonNull(propertiesProviderSelector);
+    listeners = new CopyOnWriteArrayList<>();
+    knownFiles = ConcurrentHashMap.newKeySet();
+    dirtyFiles = ConcurrentHashMap.newKeySet();
+    fileSnapshots = new ConcurrentHashMap<>();
+    lastConfigurations = new ConcurrentHashMap<>();
+    fileUtils = new FileUtils();
+    fileWatcher = new FileWatcher(file -> {
+      dirtyFiles.add(file);
+      notifyListeners();
+    });
   }
 
   /**
@@ -96,6 +138,9 @@ public class FilesConfigurationSource implements ConfigurationSource {
    * {@link Environment} name is prepended to all file paths from {@link ConfigFilesProvider}
    * to form an absolute configuration file path. If environment name is empty paths are treated as relative
    * to the user's home directory location.
+   * <p>
+   * The returned state is marked as changed only when content of any of the files changed since the previous call
+   * for the same {@code environment}.
    *
    * @param environment environment to use
    * @return configuration set for {@code environment}
@@ -104,7 +149,7 @@ public class FilesConfigurationSource implements ConfigurationSource {
    */
   @Override
   public ConfigurationState getConfiguration(Environment environment) {
-    Map<String, Properties> propertiesMap = new HashMap<>();
+    Map<String, ConfigTree> trees = new HashMap<>();
 
     Path rootPath;
     if (environment.getName().trim().isEmpty()) {
@@ -119,21 +164,80 @@ public class FilesConfigurationSource implements ConfigurationSource {
 
     List<Path> paths = new ArrayList<>();
     for (Path path : configFilesProvider.getConfigFiles()) {
-      paths.add(rootPath.resolve(path));
+      paths.add(rootPath.resolve(path).toAbsolutePath().normalize());
+    }
+
+    knownFiles.addAll(paths);
+    if (!listeners.isEmpty()) {
+      paths.forEach(fileWatcher::watch);
     }
 
     for (Path path : paths) {
-      try (InputStream input = new FileInputStream(path.toFile())) {
+      FileSnapshot snapshot = refresh(path, fileSnapshots.get(path));
+      fileSnapshots.put(path, snapshot);
+      trees.put(path.getFileName().toString(), snapshot.tree);
+    }
+
+    Map<String, ConfigTree> previous = lastConfigurations.put(rootPath.toAbsolutePath().normalize(), trees);
+
+    return ConfigurationState.ofTrees(trees, !sameTrees(previous, trees));
+  }
+
+  private FileSnapshot refresh(Path path, FileSnapshot previous) {
+    boolean dirty = dirtyFiles.remove(path);
+
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      if (previous != null && !dirty && previous.hasSameAttributes(attributes)) {
+        return previous;
+      }
+
+      long readTime = System.currentTimeMillis();
+      return fileUtils.readFile(path, content -> {
+        long checksum = checksum(content);
 
+        if (previous != null && previous.size == content.remaining() && previous.checksum == checksum) {
+          return new FileSnapshot(attributes.lastModifiedTime(), content.remaining(), checksum, readTime,
+              previous.tree);
+        }
+
+        LOG.debug("Parsing configuration file: " + path);
         PropertiesProvider provider = propertiesProviderSelector.getProvider(path.getFileName().toString());
-        propertiesMap.put(path.getFileName().toString(),provider.getProperties(input));
+        return new FileSnapshot(attributes.lastModifiedTime(), content.remaining(), checksum, readTime,
+            provider.getTree(content));
+      });
+
+    } catch (IOException e) {
+      fileSnapshots.remove(path);
+      throw new IllegalStateException("Unable to load properties from file: " + path, e);
+    }
+  }
+
+  private static long checksum(ByteBuffer content) throws IOException {
+    CRC32 crc = new CRC32();
+    byte[] chunk = new byte[8192];
+    // Read through the stream, CRC32 reads mapped buffers in native code that doesn't survive a truncated file
+    try (InputStream input = new ByteBufferInputStream(content.duplicate())) {
+      int count;
+      while ((count = input.read(chunk)) > 0) {
+        crc.update(chunk, 0, count);
+      }
+    }
+    return crc.getValue();
+  }
+
+  private static boolean sameTrees(Map<String, ConfigTree> previous, Map<String, ConfigTree> current) {
+    if (previous == null || !previous.keySet().equals(current.keySet())) {
+      return false;
+    }
 
-      } catch (IOException e) {
-        throw new IllegalStateException("Unable to load properties from file: " + path, e);
+    for (Map.Entry<String, ConfigTree> entry : current.entrySet()) {
+      if (previous.get(entry.getKey()) != entry.getValue()) {
+        return false;
       }
     }
 
-    return new ConfigurationState(propertiesMap, true);
+    return true;
   }
 
   @Override
@@ -141,6 +245,70 @@ public class FilesConfigurationSource implements ConfigurationSource {
     // NOP
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Watches all files read so far and the ones read by subsequent {@link #getConfiguration(Environment)} calls.
+   * Files that can't be watched are checked for changes on each {@link #getConfiguration(Environment)} call.
+   */
+  @Override
+  public void addChangeListener(ChangeListener listener) {
+    listeners.add(requireNonNull(listener));
+    knownFiles.forEach(fileWatcher::watch);
+  }
+
+  @Override
+  public void removeChangeListener(ChangeListener listener) {
+    listeners.remove(listener);
+  }
+
+  private void notifyListeners() {
+    for (ChangeListener listener : listeners) {
+      try {
+        listener.onChange();
+      } catch (Exception e) {
+        LOG.warn("Change listener " + listener + " failed", e);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    fileWatcher.close();
+  }
+
+  /**
+   * Content and metadata of a configuration file as of the time it was read.
+   */
+  private static final class FileSnapshot {
+
+    /**
+     * File systems with coarse timestamps may not change the modification time of a file modified shortly after
+     * being read. Content of files modified within this window before the read is verified on each access.
+     */
+    private static final long RACY_WINDOW_MILLIS = 2000;
+
+    private final FileTime lastModified;
+    private final long size;
+    private final long checksum;
+    private final long readTime;
+    private final ConfigTree tree;
+
+    FileSnapshot(FileTime lastModified, long size, long checksum, long readTime, ConfigTree tree) {
+      this.lastModified = lastModified;
+      this.size = size;
+      this.checksum = checksum;
+      this.readTime = readTime;
+      this.tree = tree;
+    }
+
+    boolean hasSameAttributes(BasicFileAttributes attributes) {
+      return attributes.lastModifiedTime().equals(lastModified)
+          && attributes.size() == size
+          && lastModified.toMillis() < readTime - RACY_WINDOW_MILLIS;
+    }
+  }
+
   @Override
   public String toString() {
     return "FilesConfigurationSource{" +
@@ -17,8 +17,10 @@ package org.cfg4j.source.reload;
 
 import static java.util.Objects.requireNonNull;
 
-import com.google.gson.Gson;
-
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import org.cfg4j.binder.TreeBinder;
+import org.cfg4j.provider.ConfigHandle;
 import org.cfg4j.provider.ConfigMeta;
 import org.cfg4j.provider.ConfigurationProviderBuilder;
 import org.cfg4j.source.ConfigurationDataWrapper;
@@ -38,14 +40,35 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A {@link ConfigurationSource} that caches configuration between calls to the {@link #reload(Environment)} method.
+ * <p>
+ * Bound objects are kept in an immutable per-environment snapshot which is replaced as a whole on every
+ * {@link #reload(Environment)}. Readers never lock - they see either the previous or the next snapshot, never a
+ * partially reloaded one. {@link ConfigHandle}s returned by {@link #handle(Environment, Class)} point directly at the
+ * environment's snapshot holder, so reading through them is a single volatile read.
+ * <p>
+ * Reload is incremental: the file and the raw subtree each class is bound from ({@code bindedFileName},
+ * {@code configKey}) are remembered. Classes bound from the very same file instance as before, or from a file whose
+ * changed keys relative to that instance (see {@link ConfigurationSource.ConfigurationState#getChangedKeys(String, Map)})
+ * don't touch their subtree, are reused without looking at their subtrees. The others are only rebound when their
+ * subtree is no longer equal to the previous one.
+ * Changes are detected against the data this cache saw last, not against the change flags of the source, which may
+ * have been consumed by another reader of a shared source. Because of that sources must not mutate data after
+ * handing it over in a {@link ConfigurationSource.ConfigurationState}. The following metrics are emitted (prefixed
+ * with a string passed at construction time):
+ * <ul>
+ * <li>cache.rebound - number of classes bound again because their input changed</li>
+ * <li>cache.reused - number of classes whose previous instance was kept</li>
+ * </ul>
+ * Both metrics are of {@link Counter} type.
  */
 public class CachedConfigurationSource implements ConfigurationDataWrapper {
 
@@ -53,10 +76,14 @@ public class CachedConfigurationSource implements ConfigurationDataWrapper {
 
   private final ConfigurationSource underlyingSource;
 
-  private Map<Class<?>, ConfigMetaInfo> configMetaData;
-  private Map<String, Map<Class<?>, Object>> dataCache;
+  private final Map<Class<?>, ConfigMetaInfo> configMetaData;
+  private final Class<?>[] boundClasses;
+  private final ClassValue<Integer> slots;
+  private final ConcurrentMap<String, Snapshot> dataCache;
+  private final TreeBinder binder;
 
-  private ReadWriteLock readWriteLock;
+  private final Counter reboundCounter;
+  private final Counter reusedCounter;
 
   /**
    * Create a new cached configuration source backed by {@code underlyingSource}.
@@ -64,15 +91,50 @@ public class CachedConfigurationSource implements ConfigurationDataWrapper {
    * @param underlyingSource source used to load data into cache.
    */
   public CachedConfigurationSource(ConfigurationSource underlyingSource, String basePathToConfigMetaClasses) {
+    this(underlyingSource, basePathToConfigMetaClasses, new MetricRegistry(), "");
+  }
+
+  /**
+   * Create a new cached configuration source backed by {@code underlyingSource}. Rebinding metrics are registered
+   * with {@code metricRegistry} and prefixed with {@code metricPrefix}.
+   *
+   * @param underlyingSource            source used to load data into cache.
+   * @param basePathToConfigMetaClasses package scanned for {@link ConfigMeta} annotated classes
+   * @param metricRegistry              metric registry to hold rebinding metrics
+   * @param metricPrefix                prefix for metric names
+   */
+  public CachedConfigurationSource(ConfigurationSource underlyingSource, String basePathToConfigMetaClasses,
+                                   MetricRegistry metricRegistry, String metricPrefix) {
+    this(underlyingSource, extractConfigMetaData(basePathToConfigMetaClasses), metricRegistry, metricPrefix);
+  }
+
+  /**
+   * Create a new cached configuration source backed by {@code underlyingSource} binding an explicitly provided
+   * set of classes instead of scanning the classpath for {@link ConfigMeta} annotations.
+   *
+   * @param underlyingSource source used to load data into cache.
+   * @param configMetaData   binding metadata for each class to bind
+   * @param metricRegistry   metric registry to hold rebinding metrics
+   * @param metricPrefix     prefix for metric names
+   */
+  public CachedConfigurationSource(ConfigurationSource underlyingSource, Map<Class<?>, ConfigMetaInfo> configMetaData,
+                                   MetricRegistry metricRegistry, String metricPrefix) {
     this.underlyingSource = requireNonNull(underlyingSource);
+    requireNonNull(metricRegistry);
+    requireNonNull(metricPrefix);
+
+    reboundCounter = metricRegistry.counter(metricPrefix + "cache.rebound");
+    reusedCounter = metricRegistry.counter(metricPrefix + "cache.reused");
 
-    this.configMetaData = extractConfigMetaData(basePathToConfigMetaClasses);
-    this.readWriteLock = new ReentrantReadWriteLock();
+    this.configMetaData = new HashMap<>(configMetaData);
+    this.boundClasses = configMetaData.keySet().toArray(new Class<?>[configMetaData.size()]);
+    this.slots = new SlotIndex(boundClasses);
 
-    dataCache = new HashMap<>();
+    dataCache = new ConcurrentHashMap<>();
+    binder = new TreeBinder();
   }
 
-  private Map<Class<?>, ConfigMetaInfo> extractConfigMetaData(String basePathToConfigMetaClasses) {
+  private static Map<Class<?>, ConfigMetaInfo> extractConfigMetaData(String basePathToConfigMetaClasses) {
     Map<Class<?>, ConfigMetaInfo> metaMap = new HashMap<>();
 
     try {
@@ -101,24 +163,33 @@ public class CachedConfigurationSource implements ConfigurationDataWrapper {
     return metaMap;
   }
 
-  private Set<Class<?>> getClasses(String packageName) throws ClassNotFoundException, IOException {
+  private static Set<Class<?>> getClasses(String packageName) throws ClassNotFoundException, IOException {
 
     Reflections reflections = new Reflections(packageName);
     return reflections.getTypesAnnotatedWith(ConfigMeta.class);
   }
 
+  @SuppressWarnings("unchecked")
   public <T> T extract(Environment environment, Class<T> type) {
+    Snapshot snapshot = dataCache.get(environment.getName());
+    int slot = slots.get(type);
+
+    if (snapshot == null || slot < 0) {
+      return null;
+    }
+
+    return (T) snapshot.data[slot];
+  }
 
-    T data = null;
-    readWriteLock.readLock().lock();
-    if (dataCache.containsKey(environment.getName())) {
+  @Override
+  public <T> ConfigHandle<T> handle(Environment environment, Class<T> type) {
+    int slot = slots.get(type);
 
-      Map<Class<?>, Object> classObjectMap = dataCache.get(environment.getName());
-      data = (T) classObjectMap.get(type);
+    if (slot < 0) {
+      throw new NoSuchElementException("No @ConfigMeta binding found for " + type.getName());
     }
 
-    readWriteLock.readLock().unlock();
-    return data;
+    return new SlotHandle<>(snapshotFor(environment.getName()), slot);
   }
 
   @Override
@@ -130,32 +201,134 @@ public class CachedConfigurationSource implements ConfigurationDataWrapper {
    * Reload configuration set for a given {@code environment} from this source in a form of {@link Properties}.
    *
    * @param environment environment to reload
+   * @return true when any of the bound classes was bound again, false otherwise
    * @throws MissingEnvironmentException when requested environment couldn't be found
    * @throws IllegalStateException when unable to fetch configuration
+   * @throws IllegalArgumentException when configuration can't be bound to one of the {@link ConfigMeta} classes
    */
-  public void reload(Environment environment) {
-    ConfigurationSource.ConfigurationState configurationState = underlyingSource.getConfiguration(environment);
+  public boolean reload(Environment environment) {
+    Snapshot snapshot = snapshotFor(environment.getName());
 
-    if (configurationState.isStateChanged()) {
-      Map<String, Properties> configuration = configurationState.getData();
+    // Fetching under the lock keeps concurrent reloads of an environment from applying states out of order
+    synchronized (snapshot) {
+      ConfigurationSource.ConfigurationState configurationState = underlyingSource.getConfiguration(environment);
 
-      Map<Class<?>, Object> cachedData = new HashMap<>();
-      configMetaData.forEach((aClass, classMeta) -> {
+      Object[] previousData = snapshot.data;
+      Object[] previousInputs = snapshot.inputs;
+      Map<String, Map<?, ?>> previousFiles = snapshot.files;
+
+      Object[] cachedData = new Object[boundClasses.length];
+      Object[] inputs = new Object[boundClasses.length];
+      Map<String, Map<?, ?>> files = new HashMap<>();
+      int rebound = 0;
+
+      for (int slot = 0; slot < boundClasses.length; slot++) {
+        Class<?> aClass = boundClasses[slot];
+        ConfigMetaInfo classMeta = configMetaData.get(aClass);
         String configKey = classMeta.getConfigKey();
         String bindedFileName = classMeta.getBindedFileName();
 
-        Object obj = configuration.get(bindedFileName).get(configKey);
+        Map<?, ?> file = configurationState.getFile(bindedFileName);
+        files.put(bindedFileName, file);
+
+        Map<?, ?> previousFile = previousInputs == null ? null : previousFiles.get(bindedFileName);
+        if (file != null && previousFile != null
+            && (file == previousFile || !configurationState.mayHaveChanged(bindedFileName, previousFile, configKey))) {
+          inputs[slot] = previousInputs[slot];
+          cachedData[slot] = previousData[slot];
+          continue;
+        }
+
+        Object obj = configurationState.getValue(bindedFileName, configKey);
+        inputs[slot] = obj;
+
+        if (previousInputs != null && Objects.equals(previousInputs[slot], obj)) {
+          cachedData[slot] = previousData[slot];
+        } else {
+          cachedData[slot] = binder.bind(obj, aClass);
+          rebound++;
+        }
+      }
+
+      // Nothing is recorded when binding fails, so the next reload compares with the last applied data again and
+      // no change gets lost
+      snapshot.inputs = inputs;
+      snapshot.files = files;
+      if (rebound > 0) {
+        snapshot.data = cachedData;
+      }
 
-        Gson gson = new Gson();
-        String jsonObj = gson.toJson(obj);
-        Object finalCachedObj = gson.fromJson(jsonObj, aClass);
-        cachedData.put(aClass, finalCachedObj);
-      });
+      reboundCounter.inc(rebound);
+      reusedCounter.inc(boundClasses.length - rebound);
+      LOG.debug("Reloaded environment " + environment.getName() + ": " + rebound + " classes rebound, "
+          + (boundClasses.length - rebound) + " reused");
 
-      readWriteLock.writeLock().lock();
-      dataCache.put(environment.getName(), cachedData);
-      readWriteLock.writeLock().unlock();
+      return rebound > 0;
+    }
+  }
+
+  private Snapshot snapshotFor(String environmentName) {
+    return dataCache.computeIfAbsent(environmentName, name -> new Snapshot(new Object[boundClasses.length]));
+  }
+
+  /**
+   * Holder of the objects bound for a single environment. The array is never mutated after being published.
+   * {@code inputs} keeps the raw subtrees those objects were bound from and {@code files} the files they were taken
+   * from. Both are only accessed under the holder's lock.
+   */
+  private static final class Snapshot {
+
+    volatile Object[] data;
+    Object[] inputs;
+    Map<String, Map<?, ?>> files;
+
+    Snapshot(Object[] data) {
+      this.data = data;
+    }
+  }
+
+  private static final class SlotHandle<T> implements ConfigHandle<T> {
+
+    private final Snapshot snapshot;
+    private final int slot;
+
+    SlotHandle(Snapshot snapshot, int slot) {
+      this.snapshot = snapshot;
+      this.slot = slot;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get() {
+      return (T) snapshot.data[slot];
+    }
+
+    @Override
+    public String toString() {
+      return "SlotHandle{" +
+          "slot=" + slot +
+          '}';
+    }
+  }
+
+  /**
+   * Maps each bound class to its position in the per-environment snapshot array (-1 for unknown classes).
+   */
+  private static final class SlotIndex extends ClassValue<Integer> {
+
+    private final Map<Class<?>, Integer> index;
+
+    SlotIndex(Class<?>[] boundClasses) {
+      index = new HashMap<>();
+      for (int slot = 0; slot < boundClasses.length; slot++) {
+        index.put(boundClasses[slot], slot);
+      }
+    }
 
+    @Override
+    protected Integer computeValue(Class<?> type) {
+      Integer slot = index.get(type);
+      return slot == null ? -1 : slot;
     }
   }
 }
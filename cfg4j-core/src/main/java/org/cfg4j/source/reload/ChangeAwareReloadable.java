@@ -0,0 +1,32 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.reload;
+
+/**
+ * {@link Reloadable} resource that can tell whether a reload observed any change. Lets {@link ReloadStrategy}s
+ * adapt to how often the resource actually changes.
+ */
+public interface ChangeAwareReloadable extends Reloadable {
+
+  /**
+   * Request resource reload. Resource should be fully reloaded before this method returns.
+   *
+   * @return true when the reloaded data differs from the previously loaded one, false otherwise
+   * @throws IllegalStateException when unable to reload resource
+   */
+  boolean reloadAndReportChange();
+
+}
@@ -29,7 +29,7 @@ import com.codahale.metrics.Timer;
  * </ul>
  * Each of those metrics is of {@link Timer} type (i.e. includes execution time percentiles, execution count, etc.)
  */
-public class MeteredReloadable implements Reloadable {
+public class MeteredReloadable implements ChangeAwareReloadable {
 
   private final Reloadable delegate;
   private final Timer reloadTimer;
@@ -52,10 +52,23 @@ public class MeteredReloadable implements Reloadable {
 
   @Override
   public void reload() {
+    reloadAndReportChange();
+  }
+
+  /**
+   * Reload the {@code delegate}. Delegates that are not {@link ChangeAwareReloadable} are always reported as changed.
+   */
+  @Override
+  public boolean reloadAndReportChange() {
     Timer.Context context = reloadTimer.time();
 
     try {
+      if (delegate instanceof ChangeAwareReloadable) {
+        return ((ChangeAwareReloadable) delegate).reloadAndReportChange();
+      }
+
       delegate.reload();
+      return true;
     } finally {
       context.stop();
     }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.reload.strategy;
+
+import static java.util.Objects.requireNonNull;
+
+import org.cfg4j.source.reload.ChangeAwareReloadable;
+import org.cfg4j.source.reload.ReloadStrategy;
+import org.cfg4j.source.reload.Reloadable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Note: use {@link AdaptiveReloadStrategyBuilder} for building instances of this class.
+ * <p>
+ * {@link ReloadStrategy} that adapts the reload interval of each resource to how often it changes. The interval starts
+ * at the minimal one and is multiplied by a backoff factor (up to the maximal interval) after every reload that
+ * observed no change or failed. As soon as a change is observed the interval drops back to the minimal one.
+ * <p>
+ * Changes are detected for {@link ChangeAwareReloadable} resources only - for any other {@link Reloadable} each
+ * successful reload counts as a change, so the strategy only backs off on failures. Reloads run on a
+ * {@link ScheduledExecutorService} in the same way as in {@link ScheduledReloadStrategy}.
+ */
+public class AdaptiveReloadStrategy implements ReloadStrategy {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AdaptiveReloadStrategy.class);
+
+  private final ScheduledExecutorService executor;
+  private final long minIntervalMillis;
+  private final long maxIntervalMillis;
+  private final double backoffMultiplier;
+  private final double jitter;
+  private final Map<Reloadable, RescheduledReloadTask> tasks;
+
+  /**
+   * Note: use {@link AdaptiveReloadStrategyBuilder} for building instances of this class.
+   *
+   * @param executor          executor running the reloads
+   * @param minInterval       interval used after a change was observed
+   * @param maxInterval       upper bound for the interval
+   * @param timeUnit          time unit of {@code minInterval} and {@code maxInterval}
+   * @param backoffMultiplier factor by which the interval grows after each reload without a change or with a failure
+   * @param jitter            maximal fraction (0 to 1) by which each interval is randomly changed
+   */
+  AdaptiveReloadStrategy(ScheduledExecutorService executor, long minInterval, long maxInterval, TimeUnit timeUnit,
+                         double backoffMultiplier, double jitter) {
+    if (minInterval <= 0 || maxInterval < minInterval) {
+      throw new IllegalArgumentException("Intervals have to satisfy 0 < min <= max: min=" + minInterval + ", max=" + maxInterval);
+    }
+    if (backoffMultiplier < 1) {
+      throw new IllegalArgumentException("Backoff multiplier can't be lower than 1: " + backoffMultiplier);
+    }
+    if (jitter < 0 || jitter > 1) {
+      throw new IllegalArgumentException("Jitter has to be between 0 and 1: " + jitter);
+    }
+
+    this.executor = requireNonNull(executor);
+    this.minIntervalMillis = requireNonNull(timeUnit).toMillis(minInterval);
+    this.maxIntervalMillis = timeUnit.toMillis(maxInterval);
+    this.backoffMultiplier = backoffMultiplier;
+    this.jitter = jitter;
+    tasks = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public void register(Reloadable resource) {
+    LOG.debug("Registering resource " + resource + " with adaptive reload time between "
+        + minIntervalMillis + " ms and " + maxIntervalMillis + " ms");
+
+    RescheduledReloadTask task = new RescheduledReloadTask(executor, resource, new RescheduledReloadTask.IntervalPolicy() {
+      private long intervalMillis = minIntervalMillis;
+
+      @Override
+      public long nextInterval(boolean changed) {
+        intervalMillis = AdaptiveReloadStrategy.this.nextInterval(intervalMillis, changed);
+        return intervalMillis;
+      }
+    }, jitter);
+    RescheduledReloadTask previous = tasks.put(resource, task);
+    if (previous != null) {
+      previous.cancel();
+    }
+
+    task.run();
+  }
+
+  @Override
+  public void deregister(Reloadable resource) {
+    LOG.debug("De-registering resource " + resource);
+
+    RescheduledReloadTask task = tasks.remove(resource);
+    if (task != null) {
+      task.cancel();
+    }
+  }
+
+  /**
+   * Compute the interval following {@code currentIntervalMillis} given the outcome of the last reload.
+   *
+   * @param currentIntervalMillis interval used before the last reload
+   * @param changed               whether the last reload succeeded and observed a change
+   * @return next interval (before jitter is applied)
+   */
+  long nextInterval(long currentIntervalMillis, boolean changed) {
+    if (changed) {
+      return minIntervalMillis;
+    }
+
+    return Math.min(maxIntervalMillis, Math.max(minIntervalMillis, (long) (currentIntervalMillis * backoffMultiplier)));
+  }
+
+  @Override
+  public String toString() {
+    return "AdaptiveReloadStrategy{" +
+        "minIntervalMillis=" + minIntervalMillis +
+        ", maxIntervalMillis=" + maxIntervalMillis +
+        ", backoffMultiplier=" + backoffMultiplier +
+        ", jitter=" + jitter +
+        '}';
+  }
+}
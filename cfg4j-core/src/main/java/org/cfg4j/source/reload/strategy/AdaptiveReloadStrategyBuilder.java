@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.reload.strategy;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builder for {@link AdaptiveReloadStrategy}.
+ */
+public class AdaptiveReloadStrategyBuilder {
+
+  private ScheduledExecutorService executor;
+  private long minInterval;
+  private long maxInterval;
+  private TimeUnit timeUnit;
+  private double backoffMultiplier;
+  private double jitter;
+
+  /**
+   * Construct {@link AdaptiveReloadStrategy}s builder
+   * <p>
+   * Default setup (override using with*() methods)
+   * <ul>
+   * <li>executor: shared, bounded pool of daemon threads (see {@link ScheduledReloadStrategyBuilder})</li>
+   * <li>intervals: between 5 seconds and 10 minutes</li>
+   * <li>backoffMultiplier: 2</li>
+   * <li>jitter: 0.1 (each interval randomly changed by up to 10%)</li>
+   * </ul>
+   */
+  public AdaptiveReloadStrategyBuilder() {
+    executor = ScheduledReloadStrategy.sharedExecutor();
+    minInterval = 5;
+    maxInterval = 600;
+    timeUnit = TimeUnit.SECONDS;
+    backoffMultiplier = 2;
+    jitter = 0.1;
+  }
+
+  /**
+   * Set executor for {@link AdaptiveReloadStrategy}s built by this builder. The caller is responsible for shutting
+   * it down.
+   *
+   * @param executor executor to use
+   * @return this builder with executor set to {@code executor}
+   */
+  public AdaptiveReloadStrategyBuilder withExecutor(ScheduledExecutorService executor) {
+    this.executor = executor;
+    return this;
+  }
+
+  /**
+   * Set interval bounds for {@link AdaptiveReloadStrategy}s built by this builder.
+   *
+   * @param minInterval interval used right after a change was observed
+   * @param maxInterval upper bound for the interval
+   * @param timeUnit    time unit to use
+   * @return this builder with interval bounds set to {@code minInterval} and {@code maxInterval}
+   */
+  public AdaptiveReloadStrategyBuilder withIntervals(long minInterval, long maxInterval, TimeUnit timeUnit) {
+    this.minInterval = minInterval;
+    this.maxInterval = maxInterval;
+    this.timeUnit = timeUnit;
+    return this;
+  }
+
+  /**
+   * Set backoff multiplier for {@link AdaptiveReloadStrategy}s built by this builder.
+   *
+   * @param backoffMultiplier factor by which the interval grows after a reload without a change or with a failure
+   * @return this builder with backoff multiplier set to {@code backoffMultiplier}
+   */
+  public AdaptiveReloadStrategyBuilder withBackoffMultiplier(double backoffMultiplier) {
+    this.backoffMultiplier = backoffMultiplier;
+    return this;
+  }
+
+  /**
+   * Set jitter for {@link AdaptiveReloadStrategy}s built by this builder.
+   *
+   * @param jitter maximal fraction (0 to 1) by which each interval is randomly changed
+   * @return this builder with jitter set to {@code jitter}
+   */
+  public AdaptiveReloadStrategyBuilder withJitter(double jitter) {
+    this.jitter = jitter;
+    return this;
+  }
+
+  /**
+   * Build an {@link AdaptiveReloadStrategy} using this builder's configuration
+   *
+   * @return new {@link AdaptiveReloadStrategy}
+   * @throws IllegalArgumentException when intervals, backoff multiplier or jitter are out of range
+   */
+  public AdaptiveReloadStrategy build() {
+    return new AdaptiveReloadStrategy(executor, minInterval, maxInterval, timeUnit, backoffMultiplier, jitter);
+  }
+
+  @Override
+  public String toString() {
+    return "AdaptiveReloadStrategyBuilder{" +
+        "minInterval=" + minInterval +
+        ", maxInterval=" + maxInterval +
+        ", timeUnit=" + timeUnit +
+        ", backoffMultiplier=" + backoffMultiplier +
+        ", jitter=" + jitter +
+        '}';
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.reload.strategy;
+
+import static java.util.Objects.requireNonNull;
+
+import org.cfg4j.source.reload.ChangeAwareReloadable;
+import org.cfg4j.source.reload.Reloadable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads a single resource and schedules its next run once the current one completes, whatever its outcome. The
+ * time between runs is chosen by an {@link IntervalPolicy} and randomly changed by up to {@code jitter} fraction of it.
+ * Intervals are measured from the start of a run: when a reload takes longer than the interval, the missed runs are
+ * skipped rather than queued up.
+ */
+final class RescheduledReloadTask implements Runnable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RescheduledReloadTask.class);
+
+  /**
+   * Chooses the interval before the next reload of a single resource.
+   */
+  interface IntervalPolicy {
+
+    /**
+     * @param changed whether the last reload succeeded and observed a change. For resources other than
+     *                {@link ChangeAwareReloadable} each successful reload counts as a change.
+     * @return interval (in milliseconds, before jitter is applied) to wait before the next reload
+     */
+    long nextInterval(boolean changed);
+  }
+
+  private final ScheduledExecutorService executor;
+  private final Reloadable resource;
+  private final IntervalPolicy intervalPolicy;
+  private final double jitter;
+  private volatile boolean cancelled;
+  private volatile ScheduledFuture<?> future;
+
+  /**
+   * @param executor       executor running the reloads
+   * @param resource       resource to reload
+   * @param intervalPolicy policy choosing the interval after each reload
+   * @param jitter         maximal fraction (0 to 1) by which each interval is randomly changed
+   */
+  RescheduledReloadTask(ScheduledExecutorService executor, Reloadable resource, IntervalPolicy intervalPolicy,
+                        double jitter) {
+    this.executor = requireNonNull(executor);
+    this.resource = requireNonNull(resource);
+    this.intervalPolicy = requireNonNull(intervalPolicy);
+    this.jitter = jitter;
+  }
+
+  @Override
+  public void run() {
+    if (cancelled) {
+      return;
+    }
+
+    long start = System.currentTimeMillis();
+    boolean changed = false;
+
+    try {
+      if (resource instanceof ChangeAwareReloadable) {
+        changed = ((ChangeAwareReloadable) resource).reloadAndReportChange();
+      } else {
+        resource.reload();
+        changed = true;
+      }
+    } catch (Exception e) {
+      LOG.warn("Scheduled resource reload failed. Will re-try at the next scheduled time.", e);
+    } finally {
+      // Errors propagate to the executor, the next run has to be scheduled regardless
+      long interval = withJitter(intervalPolicy.nextInterval(changed));
+      long elapsed = System.currentTimeMillis() - start;
+      if (elapsed >= interval) {
+        LOG.debug("Reload of " + resource + " took " + elapsed + " ms, skipping " + elapsed / interval
+            + " scheduled run(s)");
+      }
+      LOG.trace("Next reload of " + resource + " in " + (interval - elapsed % interval) + " ms");
+
+      scheduleIn(interval - elapsed % interval);
+    }
+  }
+
+  /**
+   * Schedule the next run of this task unless it was cancelled.
+   *
+   * @param delayMillis delay (in milliseconds) before the run
+   */
+  void scheduleIn(long delayMillis) {
+    if (!cancelled) {
+      future = executor.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stop reloading. A reload that is already running completes but is not rescheduled.
+   */
+  void cancel() {
+    cancelled = true;
+    ScheduledFuture<?> current = future;
+    if (current != null) {
+      current.cancel(false);
+    }
+  }
+
+  private long withJitter(long intervalMillis) {
+    if (jitter == 0) {
+      return intervalMillis;
+    }
+
+    double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+    return Math.max(1, (long) (intervalMillis * factor));
+  }
+}
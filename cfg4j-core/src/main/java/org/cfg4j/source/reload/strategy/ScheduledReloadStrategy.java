@@ -0,0 +1,159 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.reload.strategy;
+
+import static java.util.Objects.requireNonNull;
+
+import org.cfg4j.source.reload.ReloadStrategy;
+import org.cfg4j.source.reload.Reloadable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Note: use {@link ScheduledReloadStrategyBuilder} for building instances of this class.
+ * <p>
+ * {@link ReloadStrategy} that reloads each registered resource periodically on a {@link ScheduledExecutorService}.
+ * Unlike {@link PeriodicalReloadStrategy} resources are reloaded independently and in parallel (up to the executor's
+ * pool size), so one slow resource doesn't delay the others. Each reload is scheduled after a jittered interval which
+ * spreads reloads of many instances over time instead of running them in lockstep. A resource is never reloaded
+ * concurrently with itself: when a reload takes longer than the interval, the missed runs are skipped rather than
+ * queued up.
+ */
+public class ScheduledReloadStrategy implements ReloadStrategy {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ScheduledReloadStrategy.class);
+
+  private final ScheduledExecutorService executor;
+  private final long intervalMillis;
+  private final double jitter;
+  private final boolean asyncFirstLoad;
+  private final Map<Reloadable, RescheduledReloadTask> tasks;
+
+  /**
+   * Note: use {@link ScheduledReloadStrategyBuilder} for building instances of this class.
+   * <p>
+   * Construct strategy that reloads each resource every {@code duration} (measured in {@code timeUnit}s) randomly
+   * shortened or extended by up to {@code jitter} fraction of it.
+   *
+   * @param executor       executor running the reloads
+   * @param duration       time (in {@code timeUnit}) between reloads
+   * @param timeUnit       time unit to use
+   * @param jitter         maximal fraction (0 to 1) by which each interval is randomly changed
+   * @param asyncFirstLoad whether the first reload on {@link #register(Reloadable)} should run on the executor
+   *                       instead of in the calling thread
+   */
+  ScheduledReloadStrategy(ScheduledExecutorService executor, long duration, TimeUnit timeUnit, double jitter,
+                          boolean asyncFirstLoad) {
+    if (duration <= 0) {
+      throw new IllegalArgumentException("Reload interval has to be positive: " + duration);
+    }
+    if (jitter < 0 || jitter > 1) {
+      throw new IllegalArgumentException("Jitter has to be between 0 and 1: " + jitter);
+    }
+
+    this.executor = requireNonNull(executor);
+    this.intervalMillis = requireNonNull(timeUnit).toMillis(duration);
+    this.jitter = jitter;
+    this.asyncFirstLoad = asyncFirstLoad;
+    tasks = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Shared executor used when no executor is provided. Bounded and backed by daemon threads.
+   *
+   * @return shared reload executor
+   */
+  static ScheduledExecutorService sharedExecutor() {
+    return SharedExecutorHolder.EXECUTOR;
+  }
+
+  @Override
+  public void register(Reloadable resource) {
+    LOG.debug("Registering resource " + resource
+        + " with reload time of " + intervalMillis + " ms and jitter of " + jitter);
+
+    RescheduledReloadTask task = new RescheduledReloadTask(executor, resource, new RescheduledReloadTask.IntervalPolicy() {
+      @Override
+      public long nextInterval(boolean changed) {
+        return intervalMillis;
+      }
+    }, jitter);
+    RescheduledReloadTask previous = tasks.put(resource, task);
+    if (previous != null) {
+      previous.cancel();
+    }
+
+    if (asyncFirstLoad) {
+      task.scheduleIn(0);
+    } else {
+      task.run();
+    }
+  }
+
+  @Override
+  public void deregister(Reloadable resource) {
+    LOG.debug("De-registering resource " + resource);
+
+    RescheduledReloadTask task = tasks.remove(resource);
+    if (task != null) {
+      task.cancel();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ScheduledReloadStrategy{" +
+        "intervalMillis=" + intervalMillis +
+        ", jitter=" + jitter +
+        ", asyncFirstLoad=" + asyncFirstLoad +
+        ", executor=" + executor +
+        '}';
+  }
+
+  private static final class SharedExecutorHolder {
+
+    private static final ScheduledExecutorService EXECUTOR = createExecutor();
+
+    private static ScheduledExecutorService createExecutor() {
+      int poolSize = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(poolSize, new ThreadFactory() {
+        private final ThreadFactory delegate = Executors.defaultThreadFactory();
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = delegate.newThread(runnable);
+          thread.setName("cfg4j-reload-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      executor.setRemoveOnCancelPolicy(true);
+
+      return executor;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.reload.strategy;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builder for {@link ScheduledReloadStrategy}.
+ */
+public class ScheduledReloadStrategyBuilder {
+
+  private ScheduledExecutorService executor;
+  private long duration;
+  private TimeUnit timeUnit;
+  private double jitter;
+  private boolean asyncFirstLoad;
+
+  /**
+   * Construct {@link ScheduledReloadStrategy}s builder
+   * <p>
+   * Default setup (override using with*() methods)
+   * <ul>
+   * <li>executor: shared, bounded pool of daemon threads</li>
+   * <li>interval: 60 seconds</li>
+   * <li>jitter: 0.1 (each interval randomly changed by up to 10%)</li>
+   * <li>asyncFirstLoad: false</li>
+   * </ul>
+   */
+  public ScheduledReloadStrategyBuilder() {
+    executor = ScheduledReloadStrategy.sharedExecutor();
+    duration = 60;
+    timeUnit = TimeUnit.SECONDS;
+    jitter = 0.1;
+    asyncFirstLoad = false;
+  }
+
+  /**
+   * Set executor for {@link ScheduledReloadStrategy}s built by this builder. The caller is responsible for shutting
+   * it down.
+   *
+   * @param executor executor to use
+   * @return this builder with executor set to {@code executor}
+   */
+  public ScheduledReloadStrategyBuilder withExecutor(ScheduledExecutorService executor) {
+    this.executor = executor;
+    return this;
+  }
+
+  /**
+   * Set reload interval for {@link ScheduledReloadStrategy}s built by this builder.
+   *
+   * @param duration time (in {@code timeUnit}) between reloads
+   * @param timeUnit time unit to use
+   * @return this builder with reload interval set to {@code duration}
+   */
+  public ScheduledReloadStrategyBuilder withInterval(long duration, TimeUnit timeUnit) {
+    this.duration = duration;
+    this.timeUnit = timeUnit;
+    return this;
+  }
+
+  /**
+   * Set jitter for {@link ScheduledReloadStrategy}s built by this builder.
+   *
+   * @param jitter maximal fraction (0 to 1) by which each interval is randomly changed
+   * @return this builder with jitter set to {@code jitter}
+   */
+  public ScheduledReloadStrategyBuilder withJitter(double jitter) {
+    this.jitter = jitter;
+    return this;
+  }
+
+  /**
+   * Make {@link ScheduledReloadStrategy}s built by this builder run the first reload on the executor instead of in
+   * the thread calling {@link ScheduledReloadStrategy#register(org.cfg4j.source.reload.Reloadable)}.
+   *
+   * @param asyncFirstLoad whether the first reload should be asynchronous
+   * @return this builder with asynchronous first load set to {@code asyncFirstLoad}
+   */
+  public ScheduledReloadStrategyBuilder withAsyncFirstLoad(boolean asyncFirstLoad) {
+    this.asyncFirstLoad = asyncFirstLoad;
+    return this;
+  }
+
+  /**
+   * Build a {@link ScheduledReloadStrategy} using this builder's configuration
+   *
+   * @return new {@link ScheduledReloadStrategy}
+   * @throws IllegalArgumentException when interval is not positive or jitter is outside of 0 to 1 range
+   */
+  public ScheduledReloadStrategy build() {
+    return new ScheduledReloadStrategy(executor, duration, timeUnit, jitter, asyncFirstLoad);
+  }
+
+  @Override
+  public String toString() {
+    return "ScheduledReloadStrategyBuilder{" +
+        "duration=" + duration +
+        ", timeUnit=" + timeUnit +
+        ", jitter=" + jitter +
+        ", asyncFirstLoad=" + asyncFirstLoad +
+        '}';
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.reload.strategy;
+
+import static java.util.Objects.requireNonNull;
+
+import org.cfg4j.source.WatchableConfigurationSource;
+import org.cfg4j.source.WatchableConfigurationSource.ChangeListener;
+import org.cfg4j.source.reload.ReloadStrategy;
+import org.cfg4j.source.reload.Reloadable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link ReloadStrategy} reloading resources only when the {@link WatchableConfigurationSource} they read from reports
+ * a change. There is no timer involved. The first reload happens immediately after calling
+ * {@link #register(Reloadable)}. Following reloads run on an {@link Executor}. Reloads of a resource never run
+ * concurrently and notifications arriving while a reload is pending or running are coalesced into a single reload.
+ */
+public class WatchReloadStrategy implements ReloadStrategy {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WatchReloadStrategy.class);
+
+  private final WatchableConfigurationSource source;
+  private final Executor executor;
+  private final Map<Reloadable, ChangeListener> listeners;
+
+  /**
+   * Construct strategy reloading resources whenever {@code source} reports a change. Reloads run on the executor
+   * shared with {@link ScheduledReloadStrategy}.
+   *
+   * @param source source to watch
+   */
+  public WatchReloadStrategy(WatchableConfigurationSource source) {
+    this(source, ScheduledReloadStrategy.sharedExecutor());
+  }
+
+  /**
+   * Construct strategy reloading resources on {@code executor} whenever {@code source} reports a change.
+   *
+   * @param source   source to watch
+   * @param executor executor running the reloads
+   */
+  public WatchReloadStrategy(WatchableConfigurationSource source, Executor executor) {
+    this.source = requireNonNull(source);
+    this.executor = requireNonNull(executor);
+    listeners = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public void register(final Reloadable resource) {
+    LOG.debug("Registering resource " + resource + " for reloads on changes of " + source);
+
+    ReloadingListener listener = new ReloadingListener(resource);
+    ChangeListener previous = listeners.put(resource, listener);
+    if (previous != null) {
+      source.removeChangeListener(previous);
+    }
+
+    source.addChangeListener(listener);
+    listener.reloadInCallingThread();
+  }
+
+  @Override
+  public void deregister(Reloadable resource) {
+    LOG.debug("De-registering resource " + resource);
+
+    ChangeListener listener = listeners.remove(resource);
+    if (listener != null) {
+      source.removeChangeListener(listener);
+    }
+  }
+
+  private static void reload(Reloadable resource) {
+    try {
+      resource.reload();
+    } catch (Exception e) {
+      LOG.warn("Resource reload failed. Will re-try on the next change notification.", e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "WatchReloadStrategy{" +
+        "source=" + source +
+        '}';
+  }
+
+  /**
+   * Schedules reloads of a single resource. Reloads never overlap: notifications arriving while one is running are
+   * coalesced into a single follow-up reload, so the resource always ends up reflecting the latest change.
+   */
+  private final class ReloadingListener implements ChangeListener, Runnable {
+
+    private final Reloadable resource;
+    private final AtomicBoolean pending;
+    private final AtomicBoolean running;
+
+    ReloadingListener(Reloadable resource) {
+      this.resource = resource;
+      this.pending = new AtomicBoolean();
+      this.running = new AtomicBoolean();
+    }
+
+    @Override
+    public void onChange() {
+      pending.set(true);
+      if (running.compareAndSet(false, true)) {
+        executor.execute(this);
+      }
+    }
+
+    /**
+     * Reload in the calling thread, or leave it to the reload that is already running.
+     */
+    void reloadInCallingThread() {
+      pending.set(true);
+      if (running.compareAndSet(false, true)) {
+        run();
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (pending.getAndSet(false)) {
+          reload(resource);
+        }
+      } finally {
+        running.set(false);
+      }
+
+      // A notification may have arrived after the last check but before the flag was cleared
+      if (pending.get() && running.compareAndSet(false, true)) {
+        executor.execute(this);
+      }
+    }
+  }
+}
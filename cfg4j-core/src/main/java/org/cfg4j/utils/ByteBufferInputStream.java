@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.utils;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link InputStream} reading remaining bytes of a {@link ByteBuffer} without copying them. Reading advances
+ * position of the buffer.
+ */
+public class ByteBufferInputStream extends InputStream {
+
+  private final ByteBuffer buffer;
+
+  /**
+   * Construct stream reading from {@code buffer}.
+   *
+   * @param buffer buffer to read from
+   */
+  public ByteBufferInputStream(ByteBuffer buffer) {
+    this.buffer = requireNonNull(buffer);
+  }
+
+  @Override
+  public int read() {
+    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) {
+    if (length == 0) {
+      return 0;
+    }
+
+    if (!buffer.hasRemaining()) {
+      return -1;
+    }
+
+    int count = Math.min(length, buffer.remaining());
+    if (buffer.isDirect()) {
+      // A bulk copy out of a mapping of a truncated file crashes some JVMs instead of throwing InternalError
+      for (int i = 0; i < count; i++) {
+        bytes[offset + i] = buffer.get();
+      }
+    } else {
+      buffer.get(bytes, offset, count);
+    }
+    return count;
+  }
+
+  @Override
+  public long skip(long count) {
+    int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+    buffer.position(buffer.position() + skipped);
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+}
@@ -16,10 +16,13 @@
 package org.cfg4j.utils;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 
 /**
@@ -48,4 +51,98 @@ public class FileUtils {
       }
     });
   }
+
+  /**
+   * Files at least this large are memory-mapped by {@link #readFile(Path, ContentReader)}. Mapping smaller files
+   * costs more than copying them.
+   */
+  static final long MAPPING_THRESHOLD = 64 * 1024;
+
+  /**
+   * Read content of a file into a heap buffer.
+   *
+   * @param file file to read
+   * @return read-only buffer with the file content
+   * @throws IOException when file can't be read or is too large to fit in a buffer
+   */
+  public ByteBuffer readFile(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return copy(file, channel);
+    }
+  }
+
+  /**
+   * Read content of a file and pass it to {@code reader}. Files of {@link #MAPPING_THRESHOLD} bytes and more are
+   * memory-mapped so that their content doesn't have to be copied to the heap, smaller files are copied. The buffer
+   * is valid only until {@code reader} returns.
+   * <p>
+   * Access to a mapping of a file truncated by another process fails with an {@link InternalError}, such failures
+   * (and truncations that went unnoticed by {@code reader}) are reported as {@link IOException}. Bulk copies out of
+   * the buffer may crash the JVM instead, read it through {@link ByteBufferInputStream}.
+   *
+   * @param file   file to read
+   * @param reader reader of the file content
+   * @param <T>    type of the result
+   * @return result of {@code reader}
+   * @throws IOException when file can't be read, is too large to fit in a buffer or was truncated while being read
+   */
+  public <T> T readFile(Path file, ContentReader<T> reader) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+
+      if (size < MAPPING_THRESHOLD) {
+        return reader.read(copy(file, channel));
+      }
+
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("File too large to read: " + file);
+      }
+
+      T result;
+      try {
+        result = reader.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+      } catch (InternalError e) {
+        throw new IOException("File was truncated while being read: " + file, e);
+      }
+
+      // Bytes past the new end of the file that share a page with its content read as zeros without failing
+      if (channel.size() < size) {
+        throw new IOException("File was truncated while being read: " + file);
+      }
+
+      return result;
+    }
+  }
+
+  private static ByteBuffer copy(Path file, FileChannel channel) throws IOException {
+    long size = channel.size();
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("File too large to read: " + file);
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) size);
+    while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+      // keep reading until the whole file is in the buffer
+    }
+    buffer.flip();
+
+    return buffer.asReadOnlyBuffer();
+  }
+
+  /**
+   * Reads content of a file passed as a {@link ByteBuffer}.
+   *
+   * @param <T> type of the result
+   */
+  public interface ContentReader<T> {
+
+    /**
+     * Read file content.
+     *
+     * @param content read-only buffer with the file content, valid only during this call
+     * @return result of reading {@code content}
+     * @throws IOException when unable to read content
+     */
+    T read(ByteBuffer content) throws IOException;
+  }
 }
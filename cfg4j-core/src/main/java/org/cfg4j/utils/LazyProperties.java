@@ -0,0 +1,252 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.utils;
+
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link java.util.Properties} whose values can be computed on first access. Lazy values are added using
+ * {@link #putLazy(Object, Supplier)} and replaced by their computed value when read using {@link #get(Object)} or
+ * {@link #getProperty(String)} (keys whose value is computed as {@code null} are removed). Methods exposing all
+ * values at once (e.g. {@link #entrySet()}) compute all pending values first, so callers never see a lazy
+ * placeholder. The same happens before serialization.
+ */
+public class LazyProperties extends java.util.Properties {
+
+  private static final long serialVersionUID = 1L;
+
+  private volatile int pending;
+
+  /**
+   * Add a value computed by {@code supplier} when first accessed.
+   *
+   * @param key      key to add
+   * @param supplier supplier computing the value, called at most once
+   */
+  public synchronized void putLazy(Object key, Supplier<Object> supplier) {
+    Object previous = super.put(key, new LazyValue(supplier));
+    pending += previous instanceof LazyValue ? 0 : 1;
+  }
+
+  /**
+   * @return true if value of the given key wasn't computed yet
+   */
+  public boolean isPending(Object key) {
+    return super.get(key) instanceof LazyValue;
+  }
+
+  @Override
+  public Object get(Object key) {
+    Object value = super.get(key);
+    return value instanceof LazyValue ? materialize(key) : value;
+  }
+
+  @Override
+  public String getProperty(String key) {
+    Object value = get(key);
+    String property = value instanceof String ? (String) value : null;
+    return property == null && defaults != null ? defaults.getProperty(key) : property;
+  }
+
+  @Override
+  public synchronized Object put(Object key, Object value) {
+    Object previous = super.put(key, value);
+    if (previous instanceof LazyValue) {
+      pending--;
+      return ((LazyValue) previous).supplier.get();
+    }
+    return previous;
+  }
+
+  @Override
+  public synchronized Object remove(Object key) {
+    Object previous = super.remove(key);
+    if (previous instanceof LazyValue) {
+      pending--;
+      return ((LazyValue) previous).supplier.get();
+    }
+    return previous;
+  }
+
+  @Override
+  public Object getOrDefault(Object key, Object defaultValue) {
+    Object value = get(key);
+    return value == null ? defaultValue : value;
+  }
+
+  @Override
+  public synchronized Object putIfAbsent(Object key, Object value) {
+    materialize(key);
+    return super.putIfAbsent(key, value);
+  }
+
+  @Override
+  public synchronized Object replace(Object key, Object value) {
+    materialize(key);
+    return super.replace(key, value);
+  }
+
+  @Override
+  public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+    materialize(key);
+    return super.replace(key, oldValue, newValue);
+  }
+
+  @Override
+  public synchronized Object computeIfAbsent(Object key, Function<? super Object, ?> mappingFunction) {
+    materialize(key);
+    return super.computeIfAbsent(key, mappingFunction);
+  }
+
+  @Override
+  public synchronized Object compute(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    materialize(key);
+    return super.compute(key, remappingFunction);
+  }
+
+  @Override
+  public synchronized Object computeIfPresent(Object key,
+                                              BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    materialize(key);
+    return super.computeIfPresent(key, remappingFunction);
+  }
+
+  @Override
+  public synchronized Object merge(Object key, Object value,
+                                   BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    materialize(key);
+    return super.merge(key, value, remappingFunction);
+  }
+
+  @Override
+  public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+    materializeAll();
+    super.replaceAll(function);
+  }
+
+  @Override
+  public Set<Map.Entry<Object, Object>> entrySet() {
+    materializeAll();
+    return super.entrySet();
+  }
+
+  @Override
+  public Collection<Object> values() {
+    materializeAll();
+    return super.values();
+  }
+
+  @Override
+  public Enumeration<Object> elements() {
+    materializeAll();
+    return super.elements();
+  }
+
+  @Override
+  public synchronized void forEach(BiConsumer<? super Object, ? super Object> action) {
+    materializeAll();
+    super.forEach(action);
+  }
+
+  @Override
+  public synchronized boolean contains(Object value) {
+    materializeAll();
+    return super.contains(value);
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    return contains(value);
+  }
+
+  @Override
+  public synchronized boolean equals(Object o) {
+    materializeAll();
+    return super.equals(o);
+  }
+
+  @Override
+  public synchronized int hashCode() {
+    materializeAll();
+    return super.hashCode();
+  }
+
+  @Override
+  public synchronized String toString() {
+    materializeAll();
+    return super.toString();
+  }
+
+  @Override
+  public synchronized Object clone() {
+    materializeAll();
+    return super.clone();
+  }
+
+  /**
+   * Compute all pending values before serialization, suppliers aren't serializable.
+   *
+   * @return this instance
+   */
+  protected Object writeReplace() {
+    materializeAll();
+    return this;
+  }
+
+  private synchronized Object materialize(Object key) {
+    Object value = super.get(key);
+    if (value instanceof LazyValue) {
+      value = ((LazyValue) value).supplier.get();
+      if (value == null) {
+        super.remove(key);
+      } else {
+        super.put(key, value);
+      }
+      pending--;
+    }
+    return value;
+  }
+
+  private void materializeAll() {
+    if (pending == 0) {
+      return;
+    }
+
+    synchronized (this) {
+      for (Object key : super.keySet().toArray()) {
+        materialize(key);
+      }
+    }
+  }
+
+  /**
+   * Placeholder of a value that wasn't computed yet.
+   */
+  private static final class LazyValue {
+    private final Supplier<Object> supplier;
+
+    LazyValue(Supplier<Object> supplier) {
+      this.supplier = supplier;
+    }
+  }
+}
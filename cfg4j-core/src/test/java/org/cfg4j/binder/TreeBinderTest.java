@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.binder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.annotations.SerializedName;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TreeBinderTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private final TreeBinder binder = new TreeBinder();
+
+  enum Mode {
+    FAST,
+    @SerializedName("slow")
+    SLOW
+  }
+
+  static class Endpoint {
+    String host;
+    int port;
+  }
+
+  static class ServiceConfig {
+    int port;
+    long timeout;
+    double ratio;
+    boolean enabled;
+    String name;
+    Mode mode;
+    List<Integer> ids;
+    Set<String> tags;
+    Map<String, Endpoint> endpoints;
+    Endpoint[] replicas;
+    @SerializedName("max-connections")
+    int maxConnections;
+    transient int notBound = 7;
+    int notPresent = 3;
+    Object raw;
+  }
+
+  @Test
+  public void bindsNullToNull() throws Exception {
+    assertThat(binder.bind(null, ServiceConfig.class)).isNull();
+  }
+
+  @Test
+  public void bindsScalars() throws Exception {
+    ServiceConfig config = binder.bind(tree("port", 8080, "timeout", "500", "ratio", 1, "enabled", "true", "name", 42),
+        ServiceConfig.class);
+
+    assertThat(config.port).isEqualTo(8080);
+    assertThat(config.timeout).isEqualTo(500L);
+    assertThat(config.ratio).isEqualTo(1.0);
+    assertThat(config.enabled).isTrue();
+    assertThat(config.name).isEqualTo("42");
+  }
+
+  @Test
+  public void bindsIntegralDoubles() throws Exception {
+    ServiceConfig config = binder.bind(tree("port", 8080.0), ServiceConfig.class);
+
+    assertThat(config.port).isEqualTo(8080);
+  }
+
+  @Test
+  public void bindsEnumsUsingSerializedName() throws Exception {
+    assertThat(binder.bind(tree("mode", "FAST"), ServiceConfig.class).mode).isEqualTo(Mode.FAST);
+    assertThat(binder.bind(tree("mode", "slow"), ServiceConfig.class).mode).isEqualTo(Mode.SLOW);
+  }
+
+  @Test
+  public void bindsCollections() throws Exception {
+    ServiceConfig config = binder.bind(tree("ids", Arrays.asList(1, 2.0, "3"), "tags", Arrays.asList("a", "b", "a")),
+        ServiceConfig.class);
+
+    assertThat(config.ids).containsExactly(1, 2, 3);
+    assertThat(config.tags).containsExactly("a", "b");
+  }
+
+  @Test
+  public void bindsNestedObjects() throws Exception {
+    Map<String, Object> endpoint = tree("host", "localhost", "port", 9090);
+    ServiceConfig config = binder.bind(tree("endpoints", Collections.singletonMap("primary", endpoint),
+        "replicas", Arrays.asList(endpoint, endpoint)), ServiceConfig.class);
+
+    assertThat(config.endpoints.get("primary").host).isEqualTo("localhost");
+    assertThat(config.replicas).hasSize(2);
+    assertThat(config.replicas[1].port).isEqualTo(9090);
+  }
+
+  @Test
+  public void usesSerializedNameForFields() throws Exception {
+    assertThat(binder.bind(tree("max-connections", 10), ServiceConfig.class).maxConnections).isEqualTo(10);
+  }
+
+  @Test
+  public void keepsDefaultsForMissingAndTransientFields() throws Exception {
+    ServiceConfig config = binder.bind(tree("notBound", 1), ServiceConfig.class);
+
+    assertThat(config.notBound).isEqualTo(7);
+    assertThat(config.notPresent).isEqualTo(3);
+  }
+
+  @Test
+  public void bindsObjectFieldsLikeGson() throws Exception {
+    ServiceConfig config = binder.bind(tree("raw", tree("a", 1)), ServiceConfig.class);
+
+    assertThat(((Map<?, ?>) config.raw).get("a")).isEqualTo(1.0);
+  }
+
+  @Test
+  public void throwsOnNonIntegralNumberForIntegerField() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    binder.bind(tree("port", 1.5), ServiceConfig.class);
+  }
+
+  @Test
+  public void throwsOnIncompatibleConversion() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    binder.bind(tree("port", "shouldBeNumber"), ServiceConfig.class);
+  }
+
+  @Test
+  public void bindsUnknownEnumConstantToNull() throws Exception {
+    ServiceConfig config = binder.bind(tree("mode", "MEDIUM"), ServiceConfig.class);
+
+    assertThat(config.mode).isNull();
+  }
+
+  private Map<String, Object> tree(Object... keyValues) {
+    Map<String, Object> tree = new LinkedHashMap<>();
+    for (int i = 1; i < keyValues.length; i += 2) {
+      tree.put((String) keyValues[i - 1], keyValues[i]);
+    }
+
+    return tree;
+  }
+}
@@ -18,20 +18,35 @@ package org.cfg4j.provider;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import org.cfg4j.source.ConfigurationSource;
 import org.cfg4j.source.context.environment.DefaultEnvironment;
+import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.reload.ReloadStrategy;
 import org.cfg4j.source.reload.Reloadable;
+import org.cfg4j.source.reload.strategy.PeriodicalReloadStrategy;
+import org.cfg4j.source.reload.strategy.ScheduledReloadStrategyBuilder;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.concurrent.TimeUnit;
+
 @RunWith(MockitoJUnitRunner.class)
 public class ConfigurationProviderBuilderTest {
 
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
   private ConfigurationProviderBuilder builder;
 
   @Before
@@ -49,4 +64,67 @@ public class ConfigurationProviderBuilderTest {
 
     verify(reloadStrategy, times(1)).register(any(Reloadable.class));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void leavesFirstLoadToStrategy() throws Exception {
+    ConfigurationSource source = mock(ConfigurationSource.class);
+    builder
+        .withConfigurationSource(source)
+        .withReloadStrategy(mock(ReloadStrategy.class))
+        .withEnvironment(new DefaultEnvironment())
+        .build();
+
+    verify(source, never()).getConfiguration(any(Environment.class));
+  }
+
+  @Test
+  public void buildThrowsWhenFirstLoadFails() throws Exception {
+    ConfigurationSource source = mock(ConfigurationSource.class);
+    when(source.getConfiguration(any(Environment.class))).thenThrow(new IllegalStateException());
+    ReloadStrategy reloadStrategy = new PeriodicalReloadStrategy(60, TimeUnit.SECONDS);
+    builder
+        .withConfigurationSource(source)
+        .withReloadStrategy(reloadStrategy)
+        .withEnvironment(new DefaultEnvironment());
+
+    expectedException.expect(IllegalStateException.class);
+    builder.build();
+  }
+
+  @Test
+  public void deregistersWhenFirstLoadFails() throws Exception {
+    ConfigurationSource source = mock(ConfigurationSource.class);
+    when(source.getConfiguration(any(Environment.class))).thenThrow(new IllegalStateException());
+    ReloadStrategy reloadStrategy = spy(new PeriodicalReloadStrategy(60, TimeUnit.SECONDS));
+    builder
+        .withConfigurationSource(source)
+        .withReloadStrategy(reloadStrategy)
+        .withEnvironment(new DefaultEnvironment());
+
+    try {
+      builder.build();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    verify(reloadStrategy, times(1)).deregister(any(Reloadable.class));
+  }
+
+  @Test
+  public void doesNotWaitForAsynchronousFirstLoad() throws Exception {
+    ConfigurationSource source = mock(ConfigurationSource.class);
+    when(source.getConfiguration(any(Environment.class))).thenThrow(new IllegalStateException());
+    ReloadStrategy reloadStrategy = new ScheduledReloadStrategyBuilder()
+        .withInterval(60, TimeUnit.SECONDS)
+        .withAsyncFirstLoad(true)
+        .build();
+
+    builder
+        .withConfigurationSource(source)
+        .withReloadStrategy(reloadStrategy)
+        .withEnvironment(new DefaultEnvironment())
+        .build();
+
+    verify(source, timeout(1000)).getConfiguration(any(Environment.class));
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.assertj.core.data.MapEntry;
+import org.cfg4j.utils.LazyProperties;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConfigTreeTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void ofConvertsNestedMaps() throws Exception {
+    Map<String, Object> map = new HashMap<>();
+    map.put("server", Collections.singletonMap("port", 8080));
+
+    ConfigTree tree = ConfigTree.of(map);
+
+    assertThat(tree.get("server")).isInstanceOf(ConfigTree.class);
+    assertThat(tree.getTree("server")).containsOnly(MapEntry.entry("port", 8080));
+  }
+
+  @Test
+  public void ofConvertsMapsInLists() throws Exception {
+    ConfigTree tree = ConfigTree.of(Collections.singletonMap("hosts",
+        Arrays.asList(Collections.singletonMap("name", "a"), "b")));
+
+    List<?> hosts = (List<?>) tree.get("hosts");
+    assertThat(hosts.get(0)).isInstanceOf(ConfigTree.class);
+    assertThat(hosts.get(1)).isEqualTo("b");
+  }
+
+  @Test
+  public void ofReturnsSameTree() throws Exception {
+    ConfigTree tree = ConfigTree.of(Collections.singletonMap("key", "value"));
+
+    assertThat(ConfigTree.of(tree)).isSameAs(tree);
+  }
+
+  @Test
+  public void ofConvertsKeysToStrings() throws Exception {
+    ConfigTree tree = ConfigTree.of(Collections.singletonMap(1, "value"));
+
+    assertThat(tree.get("1")).isEqualTo("value");
+  }
+
+  @Test
+  public void keepsTypesOfPrimitiveLeaves() throws Exception {
+    ConfigTree tree = ConfigTree.builder()
+        .put("int", 1)
+        .put("long", 2L)
+        .put("double", 1.5)
+        .put("boolean", true)
+        .put("string", "value")
+        .build();
+
+    assertThat(tree).containsOnly(MapEntry.entry("int", 1), MapEntry.entry("long", 2L),
+        MapEntry.entry("double", 1.5), MapEntry.entry("boolean", true), MapEntry.entry("string", "value"));
+  }
+
+  @Test
+  public void findResolvesDottedPaths() throws Exception {
+    ConfigTree tree = ConfigTree.of(Collections.singletonMap("server",
+        Collections.singletonMap("http", Collections.singletonMap("port", 8080))));
+
+    assertThat(tree.find("server.http.port")).isEqualTo(8080);
+    assertThat(tree.find("server.http")).isEqualTo(Collections.singletonMap("port", 8080));
+    assertThat(tree.find("server.https.port")).isNull();
+  }
+
+  @Test
+  public void findResolvesKeysContainingDots() throws Exception {
+    ConfigTree tree = ConfigTree.of(Collections.singletonMap("a.b", Collections.singletonMap("c", "value")));
+
+    assertThat(tree.find("a.b.c")).isEqualTo("value");
+  }
+
+  @Test
+  public void findResolvesDottedPathsInPlainMaps() throws Exception {
+    Properties properties = new Properties();
+    properties.put("server", Collections.singletonMap("http", Collections.singletonMap("port", 8080)));
+
+    assertThat(ConfigTree.find(properties, "server.http.port")).isEqualTo(8080);
+    assertThat(ConfigTree.find(properties, "server.https.port")).isNull();
+  }
+
+  @Test
+  public void newPropertiesAreNotShared() throws Exception {
+    ConfigTree tree = ConfigTree.of(Collections.singletonMap("key", "value"));
+    Properties properties = tree.newProperties();
+
+    properties.put("key", "other");
+
+    assertThat(tree.newProperties().get("key")).isEqualTo("value");
+    assertThat(tree.toProperties().get("key")).isEqualTo("value");
+    assertThat(tree.get("key")).isEqualTo("value");
+  }
+
+  @Test
+  public void toPropertiesResolvesDottedKeys() throws Exception {
+    ConfigTree tree = ConfigTree.of(Collections.singletonMap("server", Collections.singletonMap("port", 8080)));
+
+    assertThat(tree.toProperties().get("server.port")).isEqualTo(8080);
+    assertThat(tree.toProperties().containsKey("server.port")).isFalse();
+  }
+
+  @Test
+  public void getLongReadsNumbers() throws Exception {
+    ConfigTree tree = ConfigTree.builder().put("int", 1).put("string", "value").build();
+
+    assertThat(tree.getLong("int", 0)).isEqualTo(1);
+    assertThat(tree.getLong("string", 7)).isEqualTo(7);
+    assertThat(tree.getLong("missing", 7)).isEqualTo(7);
+  }
+
+  @Test
+  public void getDoubleReadsNumbers() throws Exception {
+    ConfigTree tree = ConfigTree.builder().put("double", 1.5).put("int", 2).build();
+
+    assertThat(tree.getDouble("double", 0)).isEqualTo(1.5);
+    assertThat(tree.getDouble("int", 0)).isEqualTo(2.0);
+  }
+
+  @Test
+  public void getBooleanReadsBooleans() throws Exception {
+    ConfigTree tree = ConfigTree.builder().put("flag", true).build();
+
+    assertThat(tree.getBoolean("flag", false)).isTrue();
+    assertThat(tree.getBoolean("missing", false)).isFalse();
+  }
+
+  @Test
+  public void getReturnsNullForNonStringKeys() throws Exception {
+    ConfigTree tree = ConfigTree.builder().put("1", "value").build();
+
+    assertThat(tree.get(1)).isNull();
+  }
+
+  @Test
+  public void equalsOtherMapsWithSameEntries() throws Exception {
+    Map<String, Object> map = new HashMap<>();
+    map.put("a", 1);
+    map.put("b", "value");
+
+    assertThat(ConfigTree.of(map)).isEqualTo(map);
+    assertThat(ConfigTree.of(map).hashCode()).isEqualTo(map.hashCode());
+  }
+
+  @Test
+  public void computesLazyValueOnce() throws Exception {
+    AtomicInteger computations = new AtomicInteger();
+    ConfigTree tree = ConfigTree.builder().putLazy("lazy", () -> {
+      computations.incrementAndGet();
+      return "value";
+    }).build();
+
+    assertThat(tree.keySet()).containsOnly("lazy");
+    assertThat(computations.get()).isZero();
+
+    assertThat(tree.get("lazy")).isEqualTo("value");
+    assertThat(tree.get("lazy")).isEqualTo("value");
+    assertThat(computations.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void ofKeepsPendingLazyPropertiesLazy() throws Exception {
+    AtomicInteger computations = new AtomicInteger();
+    LazyProperties properties = new LazyProperties();
+    properties.putLazy("lazy", () -> {
+      computations.incrementAndGet();
+      return "value";
+    });
+
+    ConfigTree tree = ConfigTree.of(properties);
+
+    assertThat(computations.get()).isZero();
+    assertThat(tree.get("lazy")).isEqualTo("value");
+  }
+
+  @Test
+  public void toPropertiesAdaptsTree() throws Exception {
+    ConfigTree tree = ConfigTree.builder().put("key", "value").put("port", 8080).build();
+
+    Properties properties = tree.toProperties();
+
+    assertThat(properties.getProperty("key")).isEqualTo("value");
+    assertThat(properties.get("port")).isEqualTo(8080);
+    assertThat(tree.toProperties()).isSameAs(properties);
+  }
+
+  @Test
+  public void toPropertiesOmitsNullValues() throws Exception {
+    ConfigTree tree = ConfigTree.builder().put("key", null).build();
+
+    assertThat(tree.toProperties()).isEmpty();
+  }
+
+  @Test
+  public void serializesWithComputedValues() throws Exception {
+    ConfigTree tree = ConfigTree.builder()
+        .putLazy("server", () -> Collections.singletonMap("port", 8080))
+        .build();
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(tree.toProperties());
+    }
+    Object copy;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      copy = in.readObject();
+    }
+
+    assertThat(copy).isEqualTo(tree.toProperties());
+  }
+
+  @Test
+  public void isImmutable() throws Exception {
+    ConfigTree tree = ConfigTree.builder().put("key", "value").build();
+
+    expectedException.expect(UnsupportedOperationException.class);
+    tree.put("other", "value");
+  }
+}
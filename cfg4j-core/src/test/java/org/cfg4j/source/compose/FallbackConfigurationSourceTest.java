@@ -21,13 +21,16 @@ import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.assertj.core.data.MapEntry;
 import org.cfg4j.source.ConfigurationSource;
+import org.cfg4j.source.ConfigurationSource.ConfigurationState;
 import org.cfg4j.source.SourceCommunicationException;
 import org.cfg4j.source.context.environment.Environment;
+import org.cfg4j.source.context.environment.ImmutableEnvironment;
 import org.cfg4j.source.context.environment.MissingEnvironmentException;
 import org.junit.Before;
 import org.junit.Rule;
@@ -36,7 +39,10 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Collections;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 @RunWith(MockitoJUnitRunner.class)
@@ -88,6 +94,121 @@ public class FallbackConfigurationSourceTest {
         .containsOnly(MapEntry.entry("prop1", "value1"));
   }
 
+  @Test
+  public void getConfigurationSkipsFailedSourceUntilHalfOpenIntervalElapses() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    FallbackConfigurationSource source = sourceWithBreakers(clock);
+    when(underlyingSources[0].getConfiguration(any(Environment.class))).thenThrow(new IllegalStateException());
+    when(underlyingSources[1].getConfiguration(any(Environment.class))).thenReturn(state("prop", "value1"));
+    source.getConfiguration(new ImmutableEnvironment("test"));
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+    source.getConfiguration(new ImmutableEnvironment("test"));
+
+    verify(underlyingSources[0], times(1)).getConfiguration(any(Environment.class));
+  }
+
+  @Test
+  public void getConfigurationProbesFailedSourceAfterHalfOpenInterval() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    FallbackConfigurationSource source = sourceWithBreakers(clock);
+    when(underlyingSources[0].getConfiguration(any(Environment.class)))
+        .thenThrow(new IllegalStateException())
+        .thenReturn(state("prop", "value0"));
+    when(underlyingSources[1].getConfiguration(any(Environment.class))).thenReturn(state("prop", "value1"));
+    source.getConfiguration(new ImmutableEnvironment("test"));
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+    ConfigurationState state = source.getConfiguration(new ImmutableEnvironment("test"));
+
+    assertThat(state.getData().get("file")).containsEntry("prop", "value0");
+    assertThat(state.isStateChanged()).isTrue();
+  }
+
+  @Test
+  public void getConfigurationServesLastGoodConfigurationWhenAllSourcesFail() throws Exception {
+    AtomicLong clock = new AtomicLong();
+    FallbackConfigurationSource source = sourceWithBreakers(clock);
+    when(underlyingSources[0].getConfiguration(any(Environment.class)))
+        .thenReturn(state("prop", "value0"))
+        .thenThrow(new IllegalStateException());
+    makeSourcesThrow(1, new IllegalStateException());
+    source.getConfiguration(new ImmutableEnvironment("test"));
+
+    ConfigurationState state = source.getConfiguration(new ImmutableEnvironment("test"));
+
+    assertThat(state.getData().get("file")).containsEntry("prop", "value0");
+    assertThat(state.isStateChanged()).isFalse();
+  }
+
+  @Test
+  public void getConfigurationServesLastGoodConfigurationOfSourceThatServedLast() throws Exception {
+    FallbackConfigurationSource source = new FallbackConfigurationSource(0, TimeUnit.SECONDS, true, underlyingSources);
+    when(underlyingSources[0].getConfiguration(any(Environment.class)))
+        .thenReturn(state("prop", "value0"))
+        .thenThrow(new IllegalStateException());
+    when(underlyingSources[1].getConfiguration(any(Environment.class)))
+        .thenReturn(state("prop", "value1"))
+        .thenThrow(new IllegalStateException());
+    makeSourcesThrow(2, new IllegalStateException());
+    source.getConfiguration(new ImmutableEnvironment("test"));
+    source.getConfiguration(new ImmutableEnvironment("test"));
+
+    ConfigurationState state = source.getConfiguration(new ImmutableEnvironment("test"));
+
+    assertThat(state.getData().get("file")).containsEntry("prop", "value1");
+    assertThat(state.isStateChanged()).isFalse();
+  }
+
+  @Test
+  public void getConfigurationDoesNotServeLastGoodConfigurationWhenAllSourcesMissEnvironment() throws Exception {
+    FallbackConfigurationSource source = new FallbackConfigurationSource(0, TimeUnit.SECONDS, true, underlyingSources);
+    when(underlyingSources[0].getConfiguration(any(Environment.class)))
+        .thenReturn(state("prop", "value0"))
+        .thenThrow(new MissingEnvironmentException(""));
+    makeSourcesThrow(1, new MissingEnvironmentException(""));
+    source.getConfiguration(new ImmutableEnvironment("test"));
+
+    expectedException.expect(MissingEnvironmentException.class);
+    source.getConfiguration(new ImmutableEnvironment("test"));
+  }
+
+  @Test
+  public void getConfigurationDoesNotServeLastGoodConfigurationByDefault() throws Exception {
+    FallbackConfigurationSource source = new FallbackConfigurationSource(10, TimeUnit.SECONDS, underlyingSources);
+    when(underlyingSources[0].getConfiguration(any(Environment.class)))
+        .thenReturn(state("prop", "value0"))
+        .thenThrow(new IllegalStateException());
+    makeSourcesThrow(1, new IllegalStateException());
+    source.getConfiguration(new ImmutableEnvironment("test"));
+
+    expectedException.expect(IllegalStateException.class);
+    source.getConfiguration(new ImmutableEnvironment("test"));
+  }
+
+  @Test
+  public void getConfigurationPropagatesStateOfServingSource() throws Exception {
+    FallbackConfigurationSource source = new FallbackConfigurationSource(underlyingSources);
+    ConfigurationState unchanged = state("prop", "value0");
+    unchanged.setStateChanged(false);
+    when(underlyingSources[0].getConfiguration(any(Environment.class)))
+        .thenReturn(state("prop", "value0"))
+        .thenReturn(unchanged);
+    source.getConfiguration(new ImmutableEnvironment("test"));
+
+    assertThat(source.getConfiguration(new ImmutableEnvironment("test")).isStateChanged()).isFalse();
+  }
+
+  @Test
+  public void getConfigurationFallsBackOnSourceCommunicationException() throws Exception {
+    FallbackConfigurationSource source = new FallbackConfigurationSource(underlyingSources);
+    when(underlyingSources[0].getConfiguration(any(Environment.class))).thenThrow(new SourceCommunicationException("", null));
+    when(underlyingSources[1].getConfiguration(any(Environment.class))).thenReturn(state("prop", "value1"));
+
+    assertThat(source.getConfiguration(new ImmutableEnvironment("test")).getData().get("file"))
+        .containsEntry("prop", "value1");
+  }
+
   @Test
   public void initInitializesAllSources() throws Exception {
     for (ConfigurationSource underlyingSource : underlyingSources) {
@@ -126,6 +247,22 @@ public class FallbackConfigurationSourceTest {
     }
   }
 
+  private FallbackConfigurationSource sourceWithBreakers(AtomicLong clock) {
+    return new FallbackConfigurationSource(10, TimeUnit.SECONDS, clock::get, true, underlyingSources);
+  }
+
+  private void makeSourcesThrow(int fromIndex, Throwable exception) {
+    for (int i = fromIndex; i < underlyingSources.length; i++) {
+      when(underlyingSources[i].getConfiguration(any(Environment.class))).thenThrow(exception);
+    }
+  }
+
+  private ConfigurationState state(String key, String value) {
+    Properties properties = new Properties();
+    properties.put(key, value);
+    return new ConfigurationState(Collections.singletonMap("file", properties), true);
+  }
+
   private Properties[] getProps(String... props) {
     Properties[] properties = new Properties[props.length / 2];
     for (int i = 1; i < props.length; i += 2) {
@@ -24,6 +24,7 @@ import static org.mockito.Mockito.when;
 
 import org.assertj.core.data.MapEntry;
 import org.cfg4j.source.ConfigurationSource;
+import org.cfg4j.source.ConfigurationSource.ConfigurationState;
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.ImmutableEnvironment;
 import org.cfg4j.source.context.environment.MissingEnvironmentException;
@@ -35,7 +36,14 @@ import org.junit.runner.RunWith;
 import org.mockito.Matchers;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 
 @RunWith(MockitoJUnitRunner.class)
@@ -94,6 +102,116 @@ public class MergeConfigurationSourceTest {
     assertThat(mergeConfigurationSource.getConfiguration(environment)).containsOnly(MapEntry.entry("prop", "value2"));
   }
 
+  @Test
+  public void getConfigurationReportsNoChangeWhenNoSourceChanged() throws Exception {
+    Environment environment = new ImmutableEnvironment("test");
+    sourcesWithStates(environment, true);
+    ConfigurationState first = mergeConfigurationSource.getConfiguration(environment);
+    sourcesWithStates(environment, false);
+
+    ConfigurationState second = mergeConfigurationSource.getConfiguration(environment);
+
+    assertThat(second.isStateChanged()).isFalse();
+    assertThat(second.getTrees()).isSameAs(first.getTrees());
+  }
+
+  @Test
+  public void getConfigurationReportsChangeWhenAnySourceChanged() throws Exception {
+    Environment environment = new ImmutableEnvironment("test");
+    sourcesWithStates(environment, false);
+    mergeConfigurationSource.getConfiguration(environment);
+    when(underlyingSources[2].getConfiguration(environment)).thenReturn(stateWithFile("file2", "changed", true));
+
+    assertThat(mergeConfigurationSource.getConfiguration(environment).isStateChanged()).isTrue();
+  }
+
+  @Test
+  public void getConfigurationReportsChangeAlreadyReportedToOtherReaderOfSource() throws Exception {
+    Environment environment = new ImmutableEnvironment("test");
+    sourcesWithStates(environment, true);
+    mergeConfigurationSource.getConfiguration(environment);
+    when(underlyingSources[2].getConfiguration(environment)).thenReturn(stateWithFile("file2", "changed", false));
+
+    ConfigurationState state = mergeConfigurationSource.getConfiguration(environment);
+
+    assertThat(state.isStateChanged()).isTrue();
+    assertThat(state.getValue("file2", "key")).isEqualTo("changed");
+  }
+
+  @Test
+  public void getConfigurationForwardsChangedKeysOfSources() throws Exception {
+    Environment environment = new ImmutableEnvironment("test");
+    sourcesWithStates(environment, true);
+    ConfigurationState first = mergeConfigurationSource.getConfiguration(environment);
+    Properties lastSeen = underlyingSources[2].getConfiguration(environment).getData().get("file2");
+    ConfigurationState state = stateWithFile("file2", "changed", true);
+    state.setChangedKeys("file2", lastSeen, Collections.singleton("key"));
+    when(underlyingSources[2].getConfiguration(environment)).thenReturn(state);
+
+    ConfigurationState merged = mergeConfigurationSource.getConfiguration(environment);
+
+    assertThat(merged.getChangedKeys("file2", first.getFile("file2"))).containsExactly("key");
+    assertThat(merged.getChangedKeys("file1", first.getFile("file1"))).isEmpty();
+  }
+
+  @Test
+  public void getConfigurationDropsChangedKeysWhenFileMovedToOtherSource() throws Exception {
+    Environment environment = new ImmutableEnvironment("test");
+    sourcesWithStates(environment, true);
+    ConfigurationState first = mergeConfigurationSource.getConfiguration(environment);
+    when(underlyingSources[1].getConfiguration(environment)).thenReturn(
+        new ConfigurationState(Collections.<String, Properties>emptyMap(), true));
+    Map<String, Properties> data = new HashMap<>(stateWithFile("file3", true).getData());
+    data.putAll(stateWithFile("file1", "moved", true).getData());
+    when(underlyingSources[3].getConfiguration(environment)).thenReturn(new ConfigurationState(data, true));
+
+    assertThat(mergeConfigurationSource.getConfiguration(environment).getChangedKeys("file1", first.getFile("file1")))
+        .isNull();
+  }
+
+  @Test
+  public void getConfigurationQueriesSourcesConcurrently() throws Exception {
+    Environment environment = new ImmutableEnvironment("test");
+    CountDownLatch allStarted = new CountDownLatch(underlyingSources.length);
+    for (int i = 0; i < underlyingSources.length; i++) {
+      ConfigurationState state = stateWithFile("file" + i, true);
+      when(underlyingSources[i].getConfiguration(environment)).thenAnswer(invocation -> {
+        allStarted.countDown();
+        allStarted.await();
+        return state;
+      });
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(underlyingSources.length);
+    MergeConfigurationSource source = new MergeConfigurationSource(executor, 5, TimeUnit.SECONDS, underlyingSources);
+
+    try {
+      assertThat(source.getConfiguration(environment).getData()).hasSize(underlyingSources.length);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void getConfigurationThrowsWhenSourceTimesOut() throws Exception {
+    Environment environment = new ImmutableEnvironment("test");
+    sourcesWithStates(environment, true);
+    CountDownLatch released = new CountDownLatch(1);
+    when(underlyingSources[1].getConfiguration(environment)).thenAnswer(invocation -> {
+      released.await();
+      return stateWithFile("file1", true);
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(underlyingSources.length);
+    MergeConfigurationSource source = new MergeConfigurationSource(executor, 50, TimeUnit.MILLISECONDS, underlyingSources);
+
+    expectedException.expect(IllegalStateException.class);
+    try {
+      source.getConfiguration(environment);
+    } finally {
+      released.countDown();
+      executor.shutdownNow();
+    }
+  }
+
   @Test
   public void initInitializesAllSources() throws Exception {
     for (ConfigurationSource underlyingSource : underlyingSources) {
@@ -109,6 +227,22 @@ public class MergeConfigurationSourceTest {
     }
   }
 
+  private void sourcesWithStates(Environment environment, boolean changed) {
+    for (int i = 0; i < underlyingSources.length; i++) {
+      when(underlyingSources[i].getConfiguration(environment)).thenReturn(stateWithFile("file" + i, changed));
+    }
+  }
+
+  private ConfigurationState stateWithFile(String fileName, boolean changed) {
+    return stateWithFile(fileName, fileName, changed);
+  }
+
+  private ConfigurationState stateWithFile(String fileName, String value, boolean changed) {
+    Properties properties = new Properties();
+    properties.put("key", value);
+    return new ConfigurationState(Collections.singletonMap(fileName, properties), changed);
+  }
+
   private Properties[] getProps(String... props) {
     Properties[] properties = new Properties[props.length / 2];
     for (int i = 1; i < props.length; i += 2) {
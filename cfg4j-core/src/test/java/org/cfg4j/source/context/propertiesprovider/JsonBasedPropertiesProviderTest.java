@@ -19,6 +19,7 @@ package org.cfg4j.source.context.propertiesprovider;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.assertj.core.data.MapEntry;
+import org.cfg4j.source.ConfigTree;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -26,7 +27,11 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
 
 
 @RunWith(MockitoJUnitRunner.class)
@@ -81,6 +86,60 @@ public class JsonBasedPropertiesProviderTest {
     }
   }
 
+  @Test
+  public void readsNumbersUsingNarrowestType() throws Exception {
+    String json = "{\"numbers\": [1, 3000000000, 1.5]}";
+
+    assertThat(provider.getProperties(new ByteArrayInputStream(json.getBytes())))
+        .containsExactly(MapEntry.entry("numbers", Arrays.asList(1, 3000000000L, 1.5)));
+  }
+
+  @Test
+  public void omitsNullValues() throws Exception {
+    String json = "{\"setting\": null, \"other\": \"value\"}";
+
+    assertThat(provider.getProperties(new ByteArrayInputStream(json.getBytes())))
+        .containsExactly(MapEntry.entry("other", "value"));
+  }
+
+  @Test
+  public void skipsFlatteningWhenDisabled() throws Exception {
+    String json = "{\"some\": {\"setting\": \"masterValue\"}}";
+
+    ConfigTree tree = new JsonBasedPropertiesProvider(false).getTree(new ByteArrayInputStream(json.getBytes()));
+
+    assertThat(tree).containsExactly(MapEntry.entry("some", Collections.singletonMap("setting", "masterValue")));
+  }
+
+  @Test
+  public void resolvesDottedKeysWhenNotFlattening() throws Exception {
+    String path = "org/cfg4j/source/propertiesprovider/JsonBasedPropertiesProviderTest_readsNestedValues.json";
+
+    try (InputStream input = getClass().getClassLoader().getResourceAsStream(path)) {
+      Properties properties = new JsonBasedPropertiesProvider(false).getProperties(input);
+
+      assertThat(properties.keySet()).containsOnly("some");
+      assertThat(properties.get("some.integerSetting")).isEqualTo(42);
+    }
+  }
+
+  @Test
+  public void returnsPropertiesOwnedByCallerWhenNotFlattening() throws Exception {
+    String json = "{\"some\": {\"setting\": \"masterValue\"}}";
+    JsonBasedPropertiesProvider structuredProvider = new JsonBasedPropertiesProvider(false);
+
+    Properties first = structuredProvider.getProperties(new ByteArrayInputStream(json.getBytes()));
+    first.clear();
+
+    assertThat(structuredProvider.getProperties(new ByteArrayInputStream(json.getBytes()))).containsKey("some");
+  }
+
+  @Test
+  public void throwsForTopLevelArray() throws Exception {
+    expectedException.expect(IllegalStateException.class);
+    provider.getProperties(new ByteArrayInputStream("[1, 2]".getBytes()));
+  }
+
   @Test
   public void throwsForNonJsonFile() throws Exception {
     String path = "org/cfg4j/source/propertiesprovider/JsonBasedPropertiesProviderTest_throwsForNonJsonFile.json";
@@ -27,6 +27,7 @@ import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 
 @RunWith(MockitoJUnitRunner.class)
@@ -60,4 +61,12 @@ public class PropertyBasedPropertiesProviderTest {
       provider.getProperties(input);
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void loadsPropertiesFromBufferWithoutConsumingIt() throws Exception {
+    ByteBuffer buffer = ByteBuffer.wrap("property=abc".getBytes("ISO-8859-1"));
+
+    assertThat(provider.getProperties(buffer)).containsExactly(MapEntry.entry("property", "abc"));
+    assertThat(buffer.remaining()).isEqualTo(12);
+  }
+}
@@ -19,6 +19,8 @@ package org.cfg4j.source.context.propertiesprovider;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.assertj.core.data.MapEntry;
+import org.cfg4j.source.ConfigTree;
+import org.cfg4j.utils.LazyProperties;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -26,7 +28,10 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
 
 
 @RunWith(MockitoJUnitRunner.class)
@@ -93,6 +98,59 @@ public class YamlBasedPropertiesProviderTest {
     }
   }
 
+  @Test
+  public void constructsTopLevelValuesOnFirstAccess() throws Exception {
+    String yaml = "server:\n  port: 8080\nclient:\n  timeout: 5\n";
+
+    LazyProperties properties = (LazyProperties) provider.getProperties(new ByteArrayInputStream(yaml.getBytes()));
+    assertThat(properties.isPending("server")).isTrue();
+
+    assertThat(properties.get("server")).isEqualTo(Collections.singletonMap("port", 8080));
+    assertThat(properties.isPending("server")).isFalse();
+    assertThat(properties.isPending("client")).isTrue();
+  }
+
+  @Test
+  public void constructsTopLevelValuesFromTheirOwnText() throws Exception {
+    String yaml = "server: &server\n  port: 8080\nhosts:\n- a\n- b\nmotd: |\n  line1\n  line2\nflow: {a: [1, 2]}\n";
+
+    LazyProperties properties = (LazyProperties) provider.getProperties(new ByteArrayInputStream(yaml.getBytes()));
+
+    assertThat(properties.isPending("server")).isTrue();
+    assertThat(properties.get("server")).isEqualTo(Collections.singletonMap("port", 8080));
+    assertThat(properties.get("hosts")).isEqualTo(Arrays.asList("a", "b"));
+    assertThat(properties.get("motd")).isEqualTo("line1\nline2\n");
+    assertThat(properties.get("flow")).isEqualTo(Collections.singletonMap("a", Arrays.asList(1, 2)));
+  }
+
+  @Test
+  public void constructsDocumentsWithAliasesEagerly() throws Exception {
+    String yaml = "base: &base\n  port: 8080\nserver: *base\n";
+
+    LazyProperties properties = (LazyProperties) provider.getProperties(new ByteArrayInputStream(yaml.getBytes()));
+
+    assertThat(properties.isPending("server")).isFalse();
+    assertThat(properties.get("server")).isEqualTo(Collections.singletonMap("port", 8080));
+  }
+
+  @Test
+  public void getTreeReturnsNestedTrees() throws Exception {
+    String yaml = "server:\n  port: 8080\n  secure: true\n";
+
+    ConfigTree tree = provider.getTree(new ByteArrayInputStream(yaml.getBytes()));
+
+    assertThat(tree.getTree("server").getLong("port", 0)).isEqualTo(8080);
+    assertThat(tree.getTree("server").getBoolean("secure", false)).isTrue();
+  }
+
+  @Test
+  public void supportsMergeKeysAtTopLevel() throws Exception {
+    String yaml = "base: &base\n  x: 1\n<<: *base\ny: 2\n";
+
+    assertThat(provider.getProperties(new ByteArrayInputStream(yaml.getBytes())))
+        .contains(MapEntry.entry("x", 1), MapEntry.entry("y", 2));
+  }
+
   @Test
   public void throwsForNonYamlFile() throws Exception {
     String path = "org/cfg4j/source/propertiesprovider/YamlBasedPropertiesProviderTest_throwsForNonYamlFile.yaml";
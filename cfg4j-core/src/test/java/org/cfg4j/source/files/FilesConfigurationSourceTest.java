@@ -16,8 +16,13 @@
 package org.cfg4j.source.files;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 import org.assertj.core.data.MapEntry;
+import org.cfg4j.source.ConfigurationSource.ConfigurationState;
+import org.cfg4j.source.WatchableConfigurationSource.ChangeListener;
 import org.cfg4j.source.context.environment.DefaultEnvironment;
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.ImmutableEnvironment;
@@ -29,10 +34,14 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -48,6 +57,9 @@ public class FilesConfigurationSourceTest {
   private FilesConfigurationSource source;
   private Environment environment;
 
+  @Mock
+  private ChangeListener changeListener;
+
   @Before
   public void setUp() throws Exception {
     fileRepo = new TempConfigurationFileRepo("org.cfg4j-test-repo");
@@ -64,6 +76,7 @@ public class FilesConfigurationSourceTest {
 
   @After
   public void tearDown() throws Exception {
+    source.close();
     fileRepo.remove();
   }
 
@@ -132,4 +145,84 @@ public class FilesConfigurationSourceTest {
     source.getConfiguration(environment);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void notifiesListenersWhenConfigFileChanges() throws Exception {
+    source.addChangeListener(changeListener);
+    source.getConfiguration(environment);
+
+    fileRepo.changeProperty(Paths.get("application.properties"), "some.setting", "changedValue");
+
+    verify(changeListener, timeout(10000).atLeastOnce()).onChange();
+  }
+
+  @Test
+  public void getConfigurationReportsChangeOnFirstRead() throws Exception {
+    assertThat(source.getConfiguration(environment).isStateChanged()).isTrue();
+  }
+
+  @Test
+  public void getConfigurationReportsNoChangeForUnchangedFiles() throws Exception {
+    ConfigurationState first = source.getConfiguration(environment);
+    ConfigurationState second = source.getConfiguration(environment);
+
+    assertThat(second.isStateChanged()).isFalse();
+    assertThat(second.getData().get("application.properties")).isSameAs(first.getData().get("application.properties"));
+  }
+
+  @Test
+  public void getConfigurationReportsChangeForModifiedFile() throws Exception {
+    source.getConfiguration(environment);
+
+    fileRepo.changeProperty(Paths.get("application.properties"), "some.setting", "changedValue");
+
+    ConfigurationState state = source.getConfiguration(environment);
+    assertThat(state.isStateChanged()).isTrue();
+    assertThat(state.getData().get("application.properties").getProperty("some.setting")).isEqualTo("changedValue");
+  }
+
+  @Test
+  public void getConfigurationReportsNoChangeForTouchedFile() throws Exception {
+    ConfigurationState first = source.getConfiguration(environment);
+
+    Path file = fileRepo.dirPath.resolve("application.properties");
+    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 60000));
+
+    ConfigurationState second = source.getConfiguration(environment);
+    assertThat(second.isStateChanged()).isFalse();
+    assertThat(second.getData().get("application.properties")).isSameAs(first.getData().get("application.properties"));
+  }
+
+  @Test
+  public void getConfigurationReportsChangeForModifiedWatchedFile() throws Exception {
+    source.addChangeListener(changeListener);
+    source.getConfiguration(environment);
+
+    fileRepo.changeProperty(Paths.get("application.properties"), "some.setting", "changedValue");
+    verify(changeListener, timeout(10000).atLeastOnce()).onChange();
+
+    ConfigurationState state = source.getConfiguration(environment);
+    assertThat(state.isStateChanged()).isTrue();
+    assertThat(state.getData().get("application.properties").getProperty("some.setting")).isEqualTo("changedValue");
+  }
+
+  @Test
+  public void getConfigurationReportsChangeForWatchedFileBehindSwappedSymlink() throws Exception {
+    // Layout of a Kubernetes ConfigMap volume: the file links through "..data" which is atomically re-pointed
+    fileRepo.changeProperty(Paths.get("configmap/..v1/application.properties"), "some.setting", "firstValue");
+    fileRepo.changeProperty(Paths.get("configmap/..v2/application.properties"), "some.setting", "secondValue");
+    Path configMap = fileRepo.dirPath.resolve("configmap");
+    Files.createSymbolicLink(configMap.resolve("..data"), Paths.get("..v1"));
+    Files.createSymbolicLink(configMap.resolve("application.properties"), Paths.get("..data/application.properties"));
+    Environment environment = new ImmutableEnvironment(configMap.toString());
+    source.addChangeListener(changeListener);
+    source.getConfiguration(environment);
+
+    Files.createSymbolicLink(configMap.resolve("..data_tmp"), Paths.get("..v2"));
+    Files.move(configMap.resolve("..data_tmp"), configMap.resolve("..data"), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+    ConfigurationState state = source.getConfiguration(environment);
+    assertThat(state.isStateChanged()).isTrue();
+    assertThat(state.getData().get("application.properties").getProperty("some.setting")).isEqualTo("secondValue");
+  }
+}
@@ -2,10 +2,19 @@ package org.cfg4j.source.reload;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.codahale.metrics.MetricRegistry;
+import org.cfg4j.provider.ConfigHandle;
+import org.cfg4j.provider.ConfigMeta;
+import org.cfg4j.source.ConfigTree;
 import org.cfg4j.source.ConfigurationSource;
+import org.cfg4j.source.ConfigurationSource.ConfigurationState;
 import org.cfg4j.source.context.environment.DefaultEnvironment;
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.MissingEnvironmentException;
@@ -17,6 +26,9 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Properties;
 
 
@@ -26,6 +38,11 @@ public class CachedConfigurationSourceTest {
   @Rule
   public ExpectedException expectedException = ExpectedException.none();
 
+  @ConfigMeta(configKey = "server", bindedFileName = "application.yaml")
+  public static class ServerConfig {
+    int port;
+  }
+
   @Mock
   private ConfigurationSource delegateSource;
   private CachedConfigurationSource cachedConfigurationSource;
@@ -67,4 +84,245 @@ public class CachedConfigurationSourceTest {
     expectedException.expect(IllegalStateException.class);
     cachedConfigurationSource.reload(new DefaultEnvironment());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void extractReturnsNullBeforeFirstReload() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+
+    assertThat(source.extract(new DefaultEnvironment(), ServerConfig.class)).isNull();
+  }
+
+  @Test
+  public void extractReturnsNullForNotBoundClass() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+    source.reload(new DefaultEnvironment());
+
+    assertThat(source.extract(new DefaultEnvironment(), String.class)).isNull();
+  }
+
+  @Test
+  public void extractReturnsObjectBoundOnReload() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+
+    source.reload(new DefaultEnvironment());
+
+    assertThat(source.extract(new DefaultEnvironment(), ServerConfig.class).port).isEqualTo(8080);
+  }
+
+  @Test
+  public void reloadPublishesNewSnapshotWithoutTouchingPreviousOne() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+    source.reload(new DefaultEnvironment());
+    ServerConfig before = source.extract(new DefaultEnvironment(), ServerConfig.class);
+
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(9090, true));
+    source.reload(new DefaultEnvironment());
+
+    assertThat(before.port).isEqualTo(8080);
+    assertThat(source.extract(new DefaultEnvironment(), ServerConfig.class).port).isEqualTo(9090);
+  }
+
+  @Test
+  public void reloadAppliesDataChangedSinceLastSeenEvenIfSourceReportsNoChange() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+    source.reload(new DefaultEnvironment());
+
+    // Change already reported to another reader of the same source
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(9090, false));
+    boolean changed = source.reload(new DefaultEnvironment());
+
+    assertThat(changed).isTrue();
+    assertThat(source.extract(new DefaultEnvironment(), ServerConfig.class).port).isEqualTo(9090);
+  }
+
+  @Test
+  public void reloadReportsNoChangeWhenDataEqualsLastSeen() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+    source.reload(new DefaultEnvironment());
+
+    assertThat(source.reload(new DefaultEnvironment())).isFalse();
+  }
+
+  @Test
+  public void handleFollowsReloads() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+    ConfigHandle<ServerConfig> handle = source.handle(new DefaultEnvironment(), ServerConfig.class);
+    assertThat(handle.get()).isNull();
+
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+    source.reload(new DefaultEnvironment());
+    assertThat(handle.get().port).isEqualTo(8080);
+
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(9090, true));
+    source.reload(new DefaultEnvironment());
+    assertThat(handle.get().port).isEqualTo(9090);
+  }
+
+  @Test
+  public void handleThrowsForNotBoundClass() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+
+    expectedException.expect(NoSuchElementException.class);
+    source.handle(new DefaultEnvironment(), String.class);
+  }
+
+  @Test
+  public void reloadReusesInstanceWhenInputNotChanged() throws Exception {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload", metricRegistry, "");
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+    source.reload(new DefaultEnvironment());
+    ServerConfig before = source.extract(new DefaultEnvironment(), ServerConfig.class);
+
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+    source.reload(new DefaultEnvironment());
+
+    assertThat(source.extract(new DefaultEnvironment(), ServerConfig.class)).isSameAs(before);
+    assertThat(metricRegistry.counter("cache.rebound").getCount()).isEqualTo(1);
+    assertThat(metricRegistry.counter("cache.reused").getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void reloadRebindsWhenInputChanged() throws Exception {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload", metricRegistry, "");
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+    source.reload(new DefaultEnvironment());
+
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(9090, true));
+    source.reload(new DefaultEnvironment());
+
+    assertThat(metricRegistry.counter("cache.rebound").getCount()).isEqualTo(2);
+    assertThat(metricRegistry.counter("cache.reused").getCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void reloadReusesInstanceWhenOtherKeysChanged() throws Exception {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload", metricRegistry, "");
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+    source.reload(new DefaultEnvironment());
+    ServerConfig before = source.extract(new DefaultEnvironment(), ServerConfig.class);
+
+    ConfigurationState state = stateWithPort(8080, true);
+    state.getData().get("application.yaml").put("client", Collections.singletonMap("timeout", 10));
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(state);
+    source.reload(new DefaultEnvironment());
+
+    assertThat(source.extract(new DefaultEnvironment(), ServerConfig.class)).isSameAs(before);
+    assertThat(metricRegistry.counter("cache.reused").getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void reloadReusesInstanceBoundFromSameFile() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+    ConfigTree tree = ConfigTree.builder().put("server", Collections.singletonMap("port", 8080)).build();
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(
+        ConfigurationState.ofTrees(Collections.singletonMap("application.yaml", tree), true));
+    source.reload(new DefaultEnvironment());
+    ServerConfig before = source.extract(new DefaultEnvironment(), ServerConfig.class);
+
+    source.reload(new DefaultEnvironment());
+
+    assertThat(source.extract(new DefaultEnvironment(), ServerConfig.class)).isSameAs(before);
+  }
+
+  @Test
+  public void reloadRebindsWhenSourceReportsNestedKeyChanged() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+    ConfigurationState first = stateWithPort(8080, true);
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(first);
+    source.reload(new DefaultEnvironment());
+
+    ConfigurationState state = stateWithPort(9090, true);
+    state.setChangedKeys("application.yaml", first.getFile("application.yaml"), Collections.singleton("server.port"));
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(state);
+    source.reload(new DefaultEnvironment());
+
+    assertThat(source.extract(new DefaultEnvironment(), ServerConfig.class).port).isEqualTo(9090);
+  }
+
+  @Test
+  public void reloadReusesInstanceWithoutReadingSubtreeWhenSourceReportsOtherKeysChanged() throws Exception {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload", metricRegistry, "");
+    ConfigurationState first = stateWithPort(8080, true);
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(first);
+    source.reload(new DefaultEnvironment());
+    ServerConfig before = source.extract(new DefaultEnvironment(), ServerConfig.class);
+
+    ConfigurationState state = spy(stateWithPort(9090, true));
+    state.setChangedKeys("application.yaml", first.getFile("application.yaml"), Collections.singleton("client.timeout"));
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(state);
+    boolean changed = source.reload(new DefaultEnvironment());
+
+    assertThat(changed).isFalse();
+    assertThat(source.extract(new DefaultEnvironment(), ServerConfig.class)).isSameAs(before);
+    assertThat(metricRegistry.counter("cache.reused").getCount()).isEqualTo(1);
+    verify(state, never()).getValue(anyString(), anyString());
+  }
+
+  @Test
+  public void reloadIgnoresChangedKeysRelativeToDataNotSeen() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+    source.reload(new DefaultEnvironment());
+
+    // Keys relative to a state returned to another reader of the source
+    ConfigurationState other = stateWithPort(9090, true);
+    ConfigurationState state = stateWithPort(9090, true);
+    state.setChangedKeys("application.yaml", other.getFile("application.yaml"), Collections.<String>emptySet());
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(state);
+    source.reload(new DefaultEnvironment());
+
+    assertThat(source.extract(new DefaultEnvironment(), ServerConfig.class).port).isEqualTo(9090);
+  }
+
+  @Test
+  public void reloadBindsAgainDataThatFailedToBind() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(stateWithPort(8080, true));
+    source.reload(new DefaultEnvironment());
+
+    Properties properties = new Properties();
+    properties.put("server", Collections.singletonMap("port", "invalid"));
+    Map<String, Properties> data = Collections.singletonMap("application.yaml", properties);
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(new ConfigurationState(data, true));
+    try {
+      source.reload(new DefaultEnvironment());
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    // The source already reported the change and now reports nothing changed
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(new ConfigurationState(data, false));
+
+    expectedException.expect(IllegalArgumentException.class);
+    source.reload(new DefaultEnvironment());
+  }
+
+  @Test
+  public void reloadBindsFromTrees() throws Exception {
+    CachedConfigurationSource source = new CachedConfigurationSource(delegateSource, "org.cfg4j.source.reload");
+    ConfigTree tree = ConfigTree.builder().put("server", Collections.singletonMap("port", 8080)).build();
+    when(delegateSource.getConfiguration(any(Environment.class))).thenReturn(
+        ConfigurationState.ofTrees(Collections.singletonMap("application.yaml", tree), true));
+
+    source.reload(new DefaultEnvironment());
+
+    assertThat(source.extract(new DefaultEnvironment(), ServerConfig.class).port).isEqualTo(8080);
+  }
+
+  private ConfigurationState stateWithPort(int port, boolean changed) {
+    Properties properties = new Properties();
+    properties.put("server", Collections.singletonMap("port", port));
+
+    Map<String, Properties> data = Collections.singletonMap("application.yaml", properties);
+    return new ConfigurationState(data, changed);
+  }
+}
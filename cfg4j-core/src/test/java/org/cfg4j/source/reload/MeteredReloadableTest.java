@@ -1,5 +1,6 @@
 package org.cfg4j.source.reload;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -55,4 +56,19 @@ public class MeteredReloadableTest {
     expectedException.expect(IllegalStateException.class);
     reloadable.reload();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void reloadAndReportChangeReportsNonChangeAwareDelegateAsChanged() throws Exception {
+    assertThat(reloadable.reloadAndReportChange()).isTrue();
+    verify(delegate, times(1)).reload();
+  }
+
+  @Test
+  public void reloadAndReportChangePassesChangeAwareDelegateResult() throws Exception {
+    ChangeAwareReloadable changeAwareDelegate = mock(ChangeAwareReloadable.class);
+    when(changeAwareDelegate.reloadAndReportChange()).thenReturn(false);
+    reloadable = new MeteredReloadable(metricRegistry, "configSource", changeAwareDelegate);
+
+    assertThat(reloadable.reloadAndReportChange()).isFalse();
+  }
+}
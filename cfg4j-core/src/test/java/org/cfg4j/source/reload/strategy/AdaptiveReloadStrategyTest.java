@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.reload.strategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.cfg4j.source.reload.ChangeAwareReloadable;
+import org.cfg4j.source.reload.Reloadable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.concurrent.TimeUnit;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdaptiveReloadStrategyTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Mock
+  private Reloadable reloadable;
+
+  @Mock
+  private ChangeAwareReloadable changeAwareReloadable;
+
+  private final AdaptiveReloadStrategy strategy = new AdaptiveReloadStrategyBuilder()
+      .withIntervals(1, 60, TimeUnit.SECONDS)
+      .withBackoffMultiplier(2)
+      .build();
+
+  @Test
+  public void reloadsImmediatelyAfterRegistered() throws Exception {
+    strategy.register(reloadable);
+    strategy.deregister(reloadable);
+
+    verify(reloadable, times(1)).reload();
+  }
+
+  @Test
+  public void usesChangeReportOfChangeAwareResources() throws Exception {
+    strategy.register(changeAwareReloadable);
+    strategy.deregister(changeAwareReloadable);
+
+    verify(changeAwareReloadable, times(1)).reloadAndReportChange();
+  }
+
+  @Test
+  public void backsOffWhenNothingChanged() throws Exception {
+    assertThat(strategy.nextInterval(1000, false)).isEqualTo(2000);
+    assertThat(strategy.nextInterval(2000, false)).isEqualTo(4000);
+  }
+
+  @Test
+  public void backOffIsCappedAtMaxInterval() throws Exception {
+    assertThat(strategy.nextInterval(50000, false)).isEqualTo(60000);
+  }
+
+  @Test
+  public void resetsToMinIntervalAfterChange() throws Exception {
+    assertThat(strategy.nextInterval(32000, true)).isEqualTo(1000);
+  }
+
+  @Test
+  public void keepsReloadingUnchangedResource() throws Exception {
+    AdaptiveReloadStrategy fastStrategy = new AdaptiveReloadStrategyBuilder()
+        .withIntervals(10, 20, TimeUnit.MILLISECONDS)
+        .build();
+    when(changeAwareReloadable.reloadAndReportChange()).thenReturn(false);
+
+    fastStrategy.register(changeAwareReloadable);
+
+    verify(changeAwareReloadable, timeout(1000).atLeast(3)).reloadAndReportChange();
+    fastStrategy.deregister(changeAwareReloadable);
+  }
+
+  @Test
+  public void keepsReloadingAfterError() throws Exception {
+    AdaptiveReloadStrategy fastStrategy = new AdaptiveReloadStrategyBuilder()
+        .withIntervals(10, 20, TimeUnit.MILLISECONDS)
+        .build();
+    when(changeAwareReloadable.reloadAndReportChange())
+        .thenReturn(false)
+        .thenThrow(new InternalError())
+        .thenReturn(false);
+
+    fastStrategy.register(changeAwareReloadable);
+
+    verify(changeAwareReloadable, timeout(1000).atLeast(3)).reloadAndReportChange();
+    fastStrategy.deregister(changeAwareReloadable);
+  }
+
+  @Test
+  public void suppressesException() throws Exception {
+    doThrow(new IllegalStateException()).when(reloadable).reload();
+
+    strategy.register(reloadable);
+    strategy.deregister(reloadable);
+
+    verify(reloadable, times(1)).reload();
+  }
+
+  @Test
+  public void throwsWhenMaxIntervalLowerThanMin() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    new AdaptiveReloadStrategyBuilder().withIntervals(10, 5, TimeUnit.SECONDS).build();
+  }
+
+  @Test
+  public void throwsOnBackoffMultiplierLowerThanOne() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    new AdaptiveReloadStrategyBuilder().withBackoffMultiplier(0.5).build();
+  }
+}
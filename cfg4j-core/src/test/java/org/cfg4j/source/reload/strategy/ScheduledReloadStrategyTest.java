@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.reload.strategy;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.cfg4j.source.reload.Reloadable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.concurrent.TimeUnit;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class ScheduledReloadStrategyTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Mock
+  private Reloadable reloadable;
+
+  @Mock
+  private Reloadable reloadable2;
+
+  @Test
+  public void reloadsImmediatelyAfterRegistered() throws Exception {
+    ScheduledReloadStrategy strategy = new ScheduledReloadStrategyBuilder().withInterval(60, TimeUnit.SECONDS).build();
+
+    strategy.register(reloadable);
+    strategy.deregister(reloadable);
+
+    verify(reloadable, times(1)).reload();
+  }
+
+  @Test
+  public void reloadsAsynchronouslyWhenRequested() throws Exception {
+    ScheduledReloadStrategy strategy = new ScheduledReloadStrategyBuilder()
+        .withInterval(60, TimeUnit.SECONDS)
+        .withAsyncFirstLoad(true)
+        .build();
+
+    strategy.register(reloadable);
+
+    verify(reloadable, timeout(1000).times(1)).reload();
+    strategy.deregister(reloadable);
+  }
+
+  @Test
+  public void reloadsPeriodically() throws Exception {
+    ScheduledReloadStrategy strategy = new ScheduledReloadStrategyBuilder().withInterval(10, TimeUnit.MILLISECONDS).build();
+
+    strategy.register(reloadable);
+    strategy.register(reloadable2);
+
+    verify(reloadable, timeout(1000).atLeast(3)).reload();
+    verify(reloadable2, timeout(1000).atLeast(3)).reload();
+    strategy.deregister(reloadable);
+    strategy.deregister(reloadable2);
+  }
+
+  @Test
+  public void stopsReloadingAfterDeregistered() throws Exception {
+    ScheduledReloadStrategy strategy = new ScheduledReloadStrategyBuilder()
+        .withInterval(100, TimeUnit.MILLISECONDS)
+        .withJitter(0)
+        .build();
+
+    strategy.register(reloadable);
+    strategy.deregister(reloadable);
+
+    Thread.sleep(300);
+    verify(reloadable, times(1)).reload();
+  }
+
+  @Test
+  public void suppressesException() throws Exception {
+    doThrow(new IllegalStateException()).when(reloadable).reload();
+    ScheduledReloadStrategy strategy = new ScheduledReloadStrategyBuilder().withInterval(10, TimeUnit.MILLISECONDS).build();
+
+    strategy.register(reloadable);
+
+    verify(reloadable, timeout(1000).atLeast(2)).reload();
+    strategy.deregister(reloadable);
+  }
+
+  @Test
+  public void keepsReloadingAfterError() throws Exception {
+    doThrow(new InternalError()).when(reloadable).reload();
+    ScheduledReloadStrategy strategy = new ScheduledReloadStrategyBuilder()
+        .withInterval(10, TimeUnit.MILLISECONDS)
+        .withAsyncFirstLoad(true)
+        .build();
+
+    strategy.register(reloadable);
+
+    verify(reloadable, timeout(1000).atLeast(2)).reload();
+    strategy.deregister(reloadable);
+  }
+
+  @Test
+  public void throwsOnInvalidJitter() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    new ScheduledReloadStrategyBuilder().withJitter(1.5).build();
+  }
+
+  @Test
+  public void throwsOnNonPositiveInterval() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+    new ScheduledReloadStrategyBuilder().withInterval(0, TimeUnit.SECONDS).build();
+  }
+}
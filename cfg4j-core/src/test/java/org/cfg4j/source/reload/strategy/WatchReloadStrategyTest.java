@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.reload.strategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.cfg4j.source.WatchableConfigurationSource;
+import org.cfg4j.source.WatchableConfigurationSource.ChangeListener;
+import org.cfg4j.source.reload.Reloadable;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class WatchReloadStrategyTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Mock
+  private WatchableConfigurationSource source;
+
+  @Mock
+  private Reloadable reloadable;
+
+  private List<Runnable> queuedTasks;
+  private WatchReloadStrategy strategy;
+
+  @Before
+  public void setUp() throws Exception {
+    queuedTasks = new ArrayList<>();
+    Executor executor = queuedTasks::add;
+    strategy = new WatchReloadStrategy(source, executor);
+  }
+
+  @Test
+  public void reloadsImmediatelyAfterRegistered() throws Exception {
+    strategy.register(reloadable);
+
+    verify(reloadable, times(1)).reload();
+  }
+
+  @Test
+  public void reloadsOnChangeNotification() throws Exception {
+    strategy.register(reloadable);
+
+    registeredListener().onChange();
+    runQueuedTasks();
+
+    verify(reloadable, times(2)).reload();
+  }
+
+  @Test
+  public void coalescesNotificationsWhileReloadIsPending() throws Exception {
+    strategy.register(reloadable);
+
+    ChangeListener listener = registeredListener();
+    listener.onChange();
+    listener.onChange();
+    listener.onChange();
+    runQueuedTasks();
+
+    verify(reloadable, times(2)).reload();
+  }
+
+  @Test
+  public void reloadsAgainInsteadOfConcurrentlyWhenNotifiedDuringReload() throws Exception {
+    AtomicBoolean notified = new AtomicBoolean();
+    doAnswer(invocation -> {
+      if (notified.compareAndSet(false, true)) {
+        registeredListener().onChange();
+      }
+      return null;
+    }).when(reloadable).reload();
+
+    strategy.register(reloadable);
+
+    assertThat(queuedTasks).isEmpty();
+    verify(reloadable, times(2)).reload();
+  }
+
+  @Test
+  public void stopsListeningAfterDeregister() throws Exception {
+    strategy.register(reloadable);
+    ChangeListener listener = registeredListener();
+
+    strategy.deregister(reloadable);
+
+    verify(source, times(1)).removeChangeListener(listener);
+  }
+
+  @Test
+  public void keepsListeningAfterFailedReload() throws Exception {
+    doThrow(new IllegalStateException()).when(reloadable).reload();
+    strategy.register(reloadable);
+
+    ChangeListener listener = registeredListener();
+    listener.onChange();
+    runQueuedTasks();
+    listener.onChange();
+    runQueuedTasks();
+
+    verify(reloadable, times(3)).reload();
+  }
+
+  private ChangeListener registeredListener() {
+    ArgumentCaptor<ChangeListener> captor = ArgumentCaptor.forClass(ChangeListener.class);
+    verify(source).addChangeListener(captor.capture());
+    return captor.getValue();
+  }
+
+  private void runQueuedTasks() {
+    List<Runnable> tasks = new ArrayList<>(queuedTasks);
+    queuedTasks.clear();
+    tasks.forEach(Runnable::run);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Properties;
+
+
+public class ByteBufferInputStreamTest {
+
+  @Test
+  public void readsRemainingBytes() throws Exception {
+    ByteBuffer buffer = ByteBuffer.wrap(new byte[]{1, 2, 3, (byte) 255});
+    buffer.get();
+
+    ByteBufferInputStream inputStream = new ByteBufferInputStream(buffer);
+
+    assertThat(inputStream.available()).isEqualTo(3);
+    assertThat(inputStream.read()).isEqualTo(2);
+    byte[] bytes = new byte[4];
+    assertThat(inputStream.read(bytes, 0, 4)).isEqualTo(2);
+    assertThat(bytes[1]).isEqualTo((byte) 255);
+    assertThat(inputStream.read()).isEqualTo(-1);
+    assertThat(inputStream.read(bytes, 0, 4)).isEqualTo(-1);
+  }
+
+  @Test
+  public void readsDirectBuffers() throws Exception {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(3);
+    buffer.put(new byte[]{1, 2, 3}).flip();
+
+    byte[] bytes = new byte[4];
+    assertThat(new ByteBufferInputStream(buffer).read(bytes, 1, 3)).isEqualTo(3);
+    assertThat(bytes).isEqualTo(new byte[]{0, 1, 2, 3});
+  }
+
+  @Test
+  public void skipsNoMoreThanRemaining() throws Exception {
+    ByteBufferInputStream inputStream = new ByteBufferInputStream(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+
+    assertThat(inputStream.skip(10)).isEqualTo(3);
+    assertThat(inputStream.read()).isEqualTo(-1);
+  }
+
+  @Test
+  public void feedsPropertiesLoader() throws Exception {
+    Properties properties = new Properties();
+
+    properties.load(new ByteBufferInputStream(ByteBuffer.wrap("some.setting=value".getBytes("ISO-8859-1"))));
+
+    assertThat(properties).containsEntry("some.setting", "value");
+  }
+}
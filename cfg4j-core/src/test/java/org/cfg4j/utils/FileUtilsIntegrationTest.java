@@ -25,8 +25,14 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 
 @RunWith(MockitoJUnitRunner.class)
@@ -81,4 +87,82 @@ public class FileUtilsIntegrationTest {
     assertThat(Files.exists(tempDirectory)).isFalse();
   }
 
-}
\ No newline at end of file
+  @Test
+  public void readsSmallFile() throws Exception {
+    Path tempFile = Files.createTempFile("", "");
+    Files.write(tempFile, "some.setting=value".getBytes("UTF-8"));
+
+    ByteBuffer content = fileUtils.readFile(tempFile);
+
+    assertThat(content).isNotInstanceOf(MappedByteBuffer.class);
+    assertThat(toBytes(content)).isEqualTo("some.setting=value".getBytes("UTF-8"));
+    fileUtils.deleteDir(tempFile);
+  }
+
+  @Test
+  public void readsLargeFileIntoHeap() throws Exception {
+    Path tempFile = Files.createTempFile("", "");
+    byte[] data = new byte[1024 * 1024];
+    Arrays.fill(data, (byte) 'x');
+    Files.write(tempFile, data);
+
+    ByteBuffer content = fileUtils.readFile(tempFile);
+
+    assertThat(content).isNotInstanceOf(MappedByteBuffer.class);
+    assertThat(toBytes(content)).isEqualTo(data);
+    fileUtils.deleteDir(tempFile);
+  }
+
+  @Test
+  public void mapsLargeFileWhilePassingItToReader() throws Exception {
+    Path tempFile = Files.createTempFile("", "");
+    byte[] data = new byte[(int) FileUtils.MAPPING_THRESHOLD * 2];
+    Arrays.fill(data, (byte) 'x');
+    Files.write(tempFile, data);
+
+    ByteBuffer content = fileUtils.readFile(tempFile, buffer -> {
+      assertThat(toBytes(buffer)).isEqualTo(data);
+      return buffer;
+    });
+
+    assertThat(content).isInstanceOf(MappedByteBuffer.class);
+    fileUtils.deleteDir(tempFile);
+  }
+
+  @Test
+  public void copiesSmallFileWhilePassingItToReader() throws Exception {
+    Path tempFile = Files.createTempFile("", "");
+    Files.write(tempFile, "some.setting=value".getBytes("UTF-8"));
+
+    ByteBuffer content = fileUtils.readFile(tempFile, buffer -> buffer);
+
+    assertThat(content).isNotInstanceOf(MappedByteBuffer.class);
+    assertThat(toBytes(content)).isEqualTo("some.setting=value".getBytes("UTF-8"));
+    fileUtils.deleteDir(tempFile);
+  }
+
+  @Test
+  public void throwsWhenMappedFileIsTruncatedWhileBeingRead() throws Exception {
+    Path tempFile = Files.createTempFile("", "");
+    Files.write(tempFile, new byte[(int) FileUtils.MAPPING_THRESHOLD * 2]);
+
+    try {
+      expectedException.expect(IOException.class);
+      fileUtils.readFile(tempFile, buffer -> {
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+          channel.truncate(10);
+        }
+        // Still within the first page, reads zeros instead of failing
+        return buffer.get(100);
+      });
+    } finally {
+      fileUtils.deleteDir(tempFile);
+    }
+  }
+
+  private static byte[] toBytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+}
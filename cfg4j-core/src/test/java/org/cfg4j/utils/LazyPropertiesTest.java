@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.assertj.core.data.MapEntry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class LazyPropertiesTest {
+
+  private LazyProperties properties;
+  private AtomicInteger computations;
+
+  @Before
+  public void setUp() throws Exception {
+    properties = new LazyProperties();
+    computations = new AtomicInteger();
+    properties.putLazy("lazy", () -> {
+      computations.incrementAndGet();
+      return "value";
+    });
+    properties.put("eager", "eagerValue");
+  }
+
+  @Test
+  public void doesNotComputeValueBeforeAccess() throws Exception {
+    assertThat(properties.containsKey("lazy")).isTrue();
+    assertThat(computations.get()).isZero();
+  }
+
+  @Test
+  public void getComputesValueOnce() throws Exception {
+    assertThat(properties.get("lazy")).isEqualTo("value");
+    assertThat(properties.get("lazy")).isEqualTo("value");
+    assertThat(computations.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void getPropertyComputesValue() throws Exception {
+    assertThat(properties.getProperty("lazy")).isEqualTo("value");
+  }
+
+  @Test
+  public void bulkAccessComputesAllValues() throws Exception {
+    assertThat(new HashMap<>(properties)).containsOnly(MapEntry.entry("lazy", "value"),
+        MapEntry.entry("eager", "eagerValue"));
+    assertThat(properties.isPending("lazy")).isFalse();
+  }
+
+  @Test
+  public void equalsComparesComputedValues() throws Exception {
+    Properties other = new Properties();
+    other.put("lazy", "value");
+    other.put("eager", "eagerValue");
+
+    assertThat(properties).isEqualTo(other);
+  }
+
+  @Test
+  public void putReplacesPendingValue() throws Exception {
+    properties.put("lazy", "other");
+
+    assertThat(properties.get("lazy")).isEqualTo("other");
+  }
+
+  @Test
+  public void putReturnsComputedPreviousValue() throws Exception {
+    assertThat(properties.put("lazy", "other")).isEqualTo("value");
+  }
+
+  @Test
+  public void serializesComputedValues() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(properties);
+    }
+
+    Object copy;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      copy = in.readObject();
+    }
+
+    assertThat(copy).isEqualTo(properties);
+    assertThat(((LazyProperties) copy).isPending("lazy")).isFalse();
+  }
+}
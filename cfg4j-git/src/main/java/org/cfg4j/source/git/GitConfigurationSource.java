@@ -19,6 +19,7 @@ import static java.util.Objects.requireNonNull;
 
 import org.cfg4j.source.ConfigurationSource;
 import org.cfg4j.source.SourceCommunicationException;
+import org.cfg4j.source.WatchableConfigurationSource;
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.MissingEnvironmentException;
 import org.cfg4j.source.context.filesprovider.ConfigFilesProvider;
@@ -26,36 +27,59 @@ import org.cfg4j.source.context.propertiesprovider.PropertiesProvider;
 import org.cfg4j.source.context.propertiesprovider.PropertiesProviderSelector;
 import org.cfg4j.utils.FileUtils;
 import org.eclipse.jgit.api.CheckoutCommand;
-import org.eclipse.jgit.api.CreateBranchCommand;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.LogCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Ref;
-import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.RemoteConfig;
+import org.eclipse.jgit.transport.URIish;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Note: use {@link GitConfigurationSourceBuilder} for building instances of this class.
  * <p>
- * Read configuration from the remote GIT repository. Keeps a local clone of the repository.
+ * Read configuration from the remote GIT repository. Keeps a local clone of the repository. By default configuration
+ * files are read straight from the git object database so no working tree is ever written, even when environments
+ * use different branches. With a cache directory set the local repository is kept across restarts and shared by JVMs
+ * running on the same host, so that only an incremental fetch is needed on startup. Once a {@link ChangeListener} is
+ * added the remote branch heads are watched for changes (see {@link RemoteRefWatcher}).
  */
-class GitConfigurationSource implements ConfigurationSource, Closeable {
+class GitConfigurationSource implements WatchableConfigurationSource, Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(GitConfigurationSource.class);
 
@@ -68,13 +92,22 @@ class GitConfigurationSource implements ConfigurationSource, Closeable {
   private final String repositoryURI;
   private final Path tmpPath;
   private final String tmpRepoPrefix;
+  private final List<ChangeListener> listeners;
+  private final RemoteRefWatcher refWatcher;
+  private final FileUtils fileUtils;
+  private final boolean workingTreeCheckout;
+  private final List<RefSpec> refSpecs;
+  private final boolean bareClone;
+  private final boolean sparseCheckout;
+  private final Path cacheDirectory;
   private Git clonedRepo;
   private Path clonedRepoPath;
-  private boolean initialized;
-  private int latestCommitTime;
-
-  private ConfigurationState configurationState;
-  private Map<String,Properties> properties ;
+  private RepositoryLock repositoryLock;
+  private final ConcurrentMap<String, EnvironmentState> environmentStates;
+  private final Object fetchLock;
+  private final Object workingTreeLock;
+  private long lastFetchStart;
+  private volatile boolean initialized;
 
   /**
    * Note: use {@link GitConfigurationSourceBuilder} for building instances of this class.
@@ -91,10 +124,22 @@ class GitConfigurationSource implements ConfigurationSource, Closeable {
    * @param configFilesProvider        {@link ConfigFilesProvider} used for determining which files in repository should be read
    * @param propertiesProviderSelector selector used for choosing {@link PropertiesProvider} based on a configuration file extension
    *                                   as config files
+   * @param watchInterval              time between checks of remote branch heads when watched for changes
+   * @param watchTimeUnit              time unit for {@code watchInterval}
+   * @param workingTreeCheckout        if true configuration files are read from a checked out working tree, otherwise
+   *                                   straight from the git object database
+   * @param refSpecs                   ref specs to fetch, all branches are fetched when empty
+   * @param bareClone                  if true the local clone is a bare repository
+   * @param sparseCheckout             if true only configuration files are checked out to the working tree
+   * @param cacheDirectory             directory keeping bare repositories reused across restarts and shared between
+   *                                   JVMs, null to use a temporary clone
+   * @throws IllegalArgumentException when working tree checkout is requested for a bare or cached clone
    */
   GitConfigurationSource(String repositoryURI, Path tmpPath, String tmpRepoPrefix, BranchResolver branchResolver,
                          PathResolver pathResolver, ConfigFilesProvider configFilesProvider,
-                         PropertiesProviderSelector propertiesProviderSelector) {
+                         PropertiesProviderSelector propertiesProviderSelector, long watchInterval,
+                         TimeUnit watchTimeUnit, boolean workingTreeCheckout, List<RefSpec> refSpecs,
+                         boolean bareClone, boolean sparseCheckout, Path cacheDirectory) {
     this.branchResolver = requireNonNull(branchResolver);
     this.pathResolver = requireNonNull(pathResolver);
     this.configFilesProvider = requireNonNull(configFilesProvider);
@@ -103,11 +148,48 @@ class GitConfigurationSource implements ConfigurationSource, Closeable {
     this.tmpPath = requireNonNull(tmpPath);
     this.tmpRepoPrefix = requireNonNull(tmpRepoPrefix);
 
-    this.properties = new HashMap<>();
-    this.configurationState = new ConfigurationState(new HashMap<>(), false);
+    listeners = new CopyOnWriteArrayList<>();
+    refWatcher = new RemoteRefWatcher(repositoryURI, watchInterval, watchTimeUnit, this::notifyListeners);
+    fileUtils = new FileUtils();
+    this.workingTreeCheckout = workingTreeCheckout;
+    this.refSpecs = refSpecs.isEmpty()
+        ? Collections.singletonList(new RefSpec("+" + Constants.R_HEADS + "*:" + Constants.R_REMOTES
+        + Constants.DEFAULT_REMOTE_NAME + "/*"))
+        : new ArrayList<>(refSpecs);
+    this.bareClone = bareClone;
+    this.sparseCheckout = sparseCheckout;
+    this.cacheDirectory = cacheDirectory;
+
+    if (bareClone && workingTreeCheckout) {
+      throw new IllegalArgumentException("Bare clone has no working tree to check out");
+    }
+
+    if (cacheDirectory != null && workingTreeCheckout) {
+      throw new IllegalArgumentException("Cached repository is shared and has no working tree to check out");
+    }
+
+    environmentStates = new ConcurrentHashMap<>();
+    fetchLock = new Object();
+    workingTreeLock = new Object();
+    lastFetchStart = System.nanoTime();
     initialized = false;
   }
 
+  /**
+   * Get configuration for a given {@code environment}. Fetches changes from the remote repository and compares
+   * the tracked branch head with the commit read previously. When the branch moved only configuration files changed
+   * between the two commits are parsed again. The returned state is marked as changed only when any configuration
+   * file changed.
+   * <p>
+   * State is tracked separately for each environment so this method may be called for many environments, also
+   * concurrently. Concurrent calls share a single fetch. Reading from a working tree (see
+   * {@link GitConfigurationSourceBuilder#withWorkingTreeCheckout(boolean)}) is serialized.
+   *
+   * @param environment environment to use
+   * @return configuration for {@code environment}
+   * @throws MissingEnvironmentException when requested branch doesn't exist
+   * @throws IllegalStateException       when unable to fetch changes from the remote repository
+   */
   @Override
   public ConfigurationState getConfiguration(Environment environment) {
     if (!initialized) {
@@ -116,71 +198,158 @@ class GitConfigurationSource implements ConfigurationSource, Closeable {
 
     reload();
 
+    String branch = branchResolver.getBranchNameFor(environment);
+    List<String> configPaths = configPathsFor(environment);
+
     try {
-      checkoutToBranch(branchResolver.getBranchNameFor(environment));
-    } catch (GitAPIException e) {
-      throw new MissingEnvironmentException(environment.getName(), e);
-    }
+      ObjectId commitId = resolveBranch(branch);
+      if (commitId == null) {
+        throw new MissingEnvironmentException(environment.getName());
+      }
+
+      EnvironmentState state = environmentStates.computeIfAbsent(environment.getName(), name -> new EnvironmentState());
+      synchronized (state) {
+        LoadedConfiguration previous = state.loaded;
+        if (previous != null && previous.commitId.equals(commitId) && previous.hasPaths(configPaths)) {
+          return new ConfigurationState(previous.data, false);
+        }
 
-    //check whether a new commit has been pushed then only parse the files
-    try{
-      if(hasCommitHappendAfterLastPull()){
-        Map<String, Properties> propertiesMap  = loadConfig(environment);
-        this.configurationState = new ConfigurationState(propertiesMap, true);
-      }else{
-        this.configurationState.setStateChanged(false);
+        Set<String> changedPaths = previous == null
+            ? new HashSet<>(configPaths)
+            : changedPaths(previous.commitId, commitId, configPaths);
+
+        LoadedConfiguration loaded;
+        if (workingTreeCheckout) {
+          synchronized (workingTreeLock) {
+            checkout(commitId, configPaths);
+            loaded = loadConfig(commitId, configPaths, changedPaths, previous);
+          }
+        } else {
+          loaded = loadConfig(commitId, configPaths, changedPaths, previous);
+        }
+        state.loaded = loaded;
+
+        return new ConfigurationState(loaded.data, previous == null || !loaded.sameFilesAs(previous));
       }
-    }catch (GitAPIException e) {
+
+    } catch (IOException | GitAPIException e) {
       throw new MissingEnvironmentException(environment.getName(), e);
     }
+  }
+
+  private ObjectId resolveBranch(String branch) throws IOException {
+    Repository repository = clonedRepo.getRepository();
+
+    Ref ref = repository.exactRef(Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + branch);
+    if (ref == null) {
+      ref = repository.exactRef(Constants.R_HEADS + branch);
+    }
 
-    return this.configurationState;
+    return ref == null ? null : ref.getObjectId();
   }
 
-  private boolean hasCommitHappendAfterLastPull() throws GitAPIException{
-    LogCommand log = clonedRepo.log();
-    log.setMaxCount(10);
+  /**
+   * Find which of the {@code paths} differ between trees of the two commits.
+   */
+  private Set<String> changedPaths(ObjectId oldCommitId, ObjectId newCommitId, Collection<String> paths)
+      throws IOException {
+    Set<String> changedPaths = new HashSet<>();
+    if (paths.isEmpty()) {
+      return changedPaths;
+    }
+
+    Repository repository = clonedRepo.getRepository();
+    try (RevWalk revWalk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+      treeWalk.addTree(revWalk.parseCommit(oldCommitId).getTree());
+      treeWalk.addTree(revWalk.parseCommit(newCommitId).getTree());
+      treeWalk.setRecursive(true);
+      treeWalk.setFilter(AndTreeFilter.create(PathFilterGroup.createFromStrings(paths), TreeFilter.ANY_DIFF));
 
-    Iterable<RevCommit> revCommits = log.call();
+      while (treeWalk.next()) {
+        changedPaths.add(treeWalk.getPathString());
+      }
+    }
 
-    boolean newCommitHappened = false;
-    if(Objects.nonNull(revCommits)){
-      Iterator<RevCommit> iterator = revCommits.iterator();
-      if(iterator.hasNext()){
-        RevCommit next = iterator.next();
+    LOG.debug("Configuration files changed between " + oldCommitId.name() + " and " + newCommitId.name() + ": "
+        + changedPaths);
 
-        int commitTime = next.getCommitTime();
+    return changedPaths;
+  }
 
-        if(commitTime > latestCommitTime){
-          latestCommitTime = commitTime;
-          newCommitHappened = true;
+  private LoadedConfiguration loadConfig(ObjectId commitId, List<String> configPaths, Set<String> changedPaths,
+                                         LoadedConfiguration previous) throws IOException {
+    Map<String, Properties> files = new HashMap<>();
+    Map<String, Properties> data = new HashMap<>();
+
+    try (ObjectReader reader = clonedRepo.getRepository().newObjectReader(); RevWalk revWalk = new RevWalk(reader)) {
+      RevTree tree = revWalk.parseCommit(commitId).getTree();
+
+      for (String configPath : configPaths) {
+        Properties fileSpecificProperties = null;
+        if (previous != null && !changedPaths.contains(configPath)) {
+          fileSpecificProperties = previous.files.get(configPath);
         }
+
+        String fileName = Paths.get(configPath).getFileName().toString();
+        if (fileSpecificProperties == null) {
+          try {
+            PropertiesProvider provider = propertiesProviderSelector.getProvider(fileName);
+            fileSpecificProperties = workingTreeCheckout
+                ? fileUtils.readFile(clonedRepoPath.resolve(configPath), provider::getProperties)
+                : readBlob(reader, tree, configPath, provider);
+          } catch (IOException e) {
+            LOG.error("Unable to load configuration from " + configPath + " file", e);
+            continue;
+          }
+        }
+
+        files.put(configPath, fileSpecificProperties);
+        data.put(fileName, fileSpecificProperties);
       }
     }
 
-    return newCommitHappened;
+    return new LoadedConfiguration(commitId, files, data);
   }
 
-  private Map<String,Properties> loadConfig(Environment environment){
-    List<Path> paths = new ArrayList<>();
-    for (Path path : configFilesProvider.getConfigFiles()) {
-      paths.add(clonedRepoPath.resolve(pathResolver.getPathFor(environment)).resolve(path));
+  /**
+   * Parse the blob at {@code configPath} in {@code tree} streaming it straight from the object database.
+   */
+  private static Properties readBlob(ObjectReader reader, RevTree tree, String configPath, PropertiesProvider provider)
+      throws IOException {
+    try (TreeWalk treeWalk = TreeWalk.forPath(reader, configPath, tree)) {
+      if (treeWalk == null) {
+        throw new FileNotFoundException(configPath);
+      }
+
+      try (InputStream input = reader.open(treeWalk.getObjectId(0), Constants.OBJ_BLOB).openStream()) {
+        return provider.getProperties(input);
+      }
     }
+  }
 
-    for (Path path : paths) {
-      try (InputStream input = new FileInputStream(path.toFile())) {
+  private List<String> configPathsFor(Environment environment) {
+    Path basePath = pathResolver.getPathFor(environment);
+
+    List<String> configPaths = new ArrayList<>();
+    for (Path path : configFilesProvider.getConfigFiles()) {
+      configPaths.add(toRepositoryPath(basePath.resolve(path)));
+    }
 
-        PropertiesProvider provider = propertiesProviderSelector.getProvider(path.getFileName().toString());
-        Properties fileSpecificProperties = provider.getProperties(input);
-        properties.put(path.getFileName().toString(), fileSpecificProperties);
+    return configPaths;
+  }
 
-      } catch (IOException e) {
-//        throw new IllegalStateException("Unable to load configuration from " + path.toString() + " file", e);
-        LOG.error("Unable to load configuration from " + path.toString() + " file", e);
+  /**
+   * Convert {@code path} to a repository path, i.e. relative and separated with "/".
+   */
+  private static String toRepositoryPath(Path path) {
+    StringJoiner joiner = new StringJoiner("/");
+    for (Path element : path.normalize()) {
+      if (!element.toString().isEmpty()) {
+        joiner.add(element.toString());
       }
     }
 
-    return properties;
+    return joiner.toString();
   }
 
   /**
@@ -191,69 +360,217 @@ class GitConfigurationSource implements ConfigurationSource, Closeable {
   public void init() {
     LOG.info("Initializing " + GitConfigurationSource.class + " pointing to " + repositoryURI);
 
+    if (cacheDirectory != null) {
+      initCachedRepository();
+    } else {
+      try {
+        clonedRepoPath = Files.createTempDirectory(tmpPath, tmpRepoPrefix);
+        // This folder can't exist or JGit will throw NPE on clone
+        Files.delete(clonedRepoPath);
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to create local clone directory: " + tmpRepoPrefix, e);
+      }
+
+      try {
+        clonedRepo = createRepository();
+        fetch();
+      } catch (GitAPIException | IOException | URISyntaxException e) {
+        throw new SourceCommunicationException("Unable to clone repository: " + repositoryURI, e);
+      }
+    }
+
+    initialized = true;
+  }
+
+  /**
+   * Open the repository kept in the cache directory (creating it when missing or unusable) and fetch changes
+   * incrementally. Holds the cache lock so that other JVMs sharing the cache wait for the operation to complete.
+   */
+  @SuppressWarnings("try")
+  private void initCachedRepository() {
+    String cacheKey = cacheKey(repositoryURI);
+    clonedRepoPath = cacheDirectory.resolve(cacheKey);
+
     try {
-      clonedRepoPath = Files.createTempDirectory(tmpPath, tmpRepoPrefix);
-      // This folder can't exist or JGit will throw NPE on clone
-      Files.delete(clonedRepoPath);
+      Files.createDirectories(cacheDirectory);
     } catch (IOException e) {
-      throw new IllegalStateException("Unable to create local clone directory: " + tmpRepoPrefix, e);
+      throw new IllegalStateException("Unable to create cache directory: " + cacheDirectory, e);
     }
 
-    try {
-      clonedRepo = Git.cloneRepository()
-          .setURI(repositoryURI)
-          .setDirectory(clonedRepoPath.toFile())
-          .call();
-    } catch (GitAPIException e) {
+    repositoryLock = new RepositoryLock(cacheDirectory.resolve(cacheKey + ".lock"));
+
+    try (Closeable lock = repositoryLock.acquire()) {
+      if (Files.exists(clonedRepoPath)) {
+        clonedRepo = openCachedRepository();
+      }
+
+      if (clonedRepo == null) {
+        LOG.info("Creating cached repository for " + repositoryURI + " in " + clonedRepoPath);
+        clonedRepo = createRepository();
+      }
+
+      fetchUnlocked();
+    } catch (GitAPIException | IOException | URISyntaxException e) {
       throw new SourceCommunicationException("Unable to clone repository: " + repositoryURI, e);
     }
-
-    initialized = true;
   }
 
-  private void reload() {
+  /**
+   * Open the cached repository. Removes it when it's not usable.
+   *
+   * @return cached repository or null if it was removed
+   */
+  private Git openCachedRepository() throws IOException {
     try {
-      LOG.debug("Reloading configuration by pulling changes");
-      clonedRepo.pull().call();
-    } catch (GitAPIException e) {
-      initialized = false;
-      throw new IllegalStateException("Unable to pull from remote repository", e);
+      Git git = Git.open(clonedRepoPath.toFile());
+      Repository repository = git.getRepository();
+      String remoteURI = repository.getConfig().getString("remote", Constants.DEFAULT_REMOTE_NAME, "url");
+
+      if (repository.getObjectDatabase().exists() && repository.isBare() && repositoryURI.equals(remoteURI)) {
+        LOG.info("Reusing cached repository for " + repositoryURI + " in " + clonedRepoPath);
+        return git;
+      }
+
+      git.close();
+    } catch (IOException e) {
+      LOG.debug("Unable to open cached repository " + clonedRepoPath, e);
     }
+
+    LOG.warn("Removing unusable cached repository: " + clonedRepoPath);
+    fileUtils.deleteDir(clonedRepoPath);
+    return null;
   }
 
-  @Override
-  public void close() throws IOException {
-    LOG.debug("Closing local repository: " + clonedRepoPath);
-    clonedRepo.close();
-    new FileUtils().deleteDir(clonedRepoPath);
+  private Git createRepository() throws GitAPIException, IOException, URISyntaxException {
+    Git git = Git.init()
+        .setDirectory(clonedRepoPath.toFile())
+        .setBare(bareClone || cacheDirectory != null)
+        .call();
+
+    StoredConfig config = git.getRepository().getConfig();
+    RemoteConfig remoteConfig = new RemoteConfig(config, Constants.DEFAULT_REMOTE_NAME);
+    remoteConfig.addURI(new URIish(repositoryURI));
+    for (RefSpec refSpec : refSpecs) {
+      remoteConfig.addFetchRefSpec(refSpec);
+    }
+    remoteConfig.update(config);
+    config.save();
+
+    return git;
   }
 
-  private void checkoutToBranch(String branch) throws GitAPIException {
-    CheckoutCommand checkoutCommand = clonedRepo.checkout()
-        .setCreateBranch(false)
-        .setName(branch);
-
-    List<Ref> refList = clonedRepo.branchList().call();
-    //This code will be called if the branch doesnot exist
-    if (!anyRefMatches(refList, branch)) {
-      checkoutCommand = checkoutCommand
-          .setCreateBranch(true)
-          .setUpstreamMode(CreateBranchCommand.SetupUpstreamMode.TRACK)
-          .setStartPoint("origin/" + branch);
+  /**
+   * Name of the cache entry for {@code repositoryURI}: readable tail of the URI followed by its digest.
+   */
+  private static String cacheKey(String repositoryURI) {
+    String name = repositoryURI.replaceAll("/+$", "");
+    name = name.substring(name.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9._-]", "_");
+
+    return name + "-" + ObjectId.fromRaw(Constants.newMessageDigest().digest(Constants.encode(repositoryURI))).name();
+  }
+
+  @SuppressWarnings("try")
+  private void fetch() throws GitAPIException, IOException {
+    if (repositoryLock == null) {
+      fetchUnlocked();
+      return;
+    }
+
+    try (Closeable lock = repositoryLock.acquire()) {
+      fetchUnlocked();
     }
+  }
 
-    checkoutCommand
+  private void fetchUnlocked() throws GitAPIException {
+    clonedRepo.fetch()
+        .setRemote(Constants.DEFAULT_REMOTE_NAME)
+        .setRefSpecs(refSpecs)
+        .setRemoveDeletedRefs(true)
         .call();
   }
 
-  private boolean anyRefMatches(List<Ref> refList, String branch) {
-    for (Ref ref : refList) {
-      if (ref.getName().replace("refs/heads/", "").equals(branch)) {
-        return true;
+  /**
+   * Update the working tree to {@code commitId}. With sparse checkout only {@code configPaths} are written.
+   */
+  private void checkout(ObjectId commitId, List<String> configPaths) throws GitAPIException, IOException {
+    if (!sparseCheckout) {
+      clonedRepo.checkout()
+          .setName(commitId.name())
+          .call();
+      return;
+    }
+
+    // Files missing in the commit are skipped by the checkout so remove stale copies first
+    for (String configPath : configPaths) {
+      Files.deleteIfExists(clonedRepoPath.resolve(configPath));
+    }
+
+    CheckoutCommand checkout = clonedRepo.checkout()
+        .setStartPoint(commitId.name());
+    for (String configPath : configPaths) {
+      checkout.addPath(configPath);
+    }
+    checkout.call();
+  }
+
+  /**
+   * Fetch changes unless another fetch started after this call and completed while waiting for it.
+   */
+  private void reload() {
+    long requestTime = System.nanoTime();
+
+    synchronized (fetchLock) {
+      if (lastFetchStart - requestTime > 0) {
+        LOG.trace("Reusing concurrent fetch");
+        return;
+      }
+
+      try {
+        LOG.debug("Reloading configuration by fetching changes");
+        lastFetchStart = System.nanoTime();
+        fetch();
+      } catch (GitAPIException | IOException e) {
+        initialized = false;
+        throw new IllegalStateException("Unable to fetch from remote repository", e);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Starts watching remote branch heads.
+   */
+  @Override
+  public void addChangeListener(ChangeListener listener) {
+    listeners.add(requireNonNull(listener));
+    refWatcher.start();
+  }
+
+  @Override
+  public void removeChangeListener(ChangeListener listener) {
+    listeners.remove(listener);
+  }
+
+  private void notifyListeners() {
+    for (ChangeListener listener : listeners) {
+      try {
+        listener.onChange();
+      } catch (Exception e) {
+        LOG.warn("Change listener " + listener + " failed", e);
       }
     }
+  }
+
+  @Override
+  public void close() throws IOException {
+    refWatcher.close();
 
-    return false;
+    LOG.debug("Closing local repository: " + clonedRepoPath);
+    clonedRepo.close();
+    if (cacheDirectory == null) {
+      fileUtils.deleteDir(clonedRepoPath);
+    }
   }
 
   @Override
@@ -267,5 +584,45 @@ class GitConfigurationSource implements ConfigurationSource, Closeable {
         '}';
   }
 
+  /**
+   * Configuration last loaded for an environment. Guarded by its own monitor.
+   */
+  private static final class EnvironmentState {
+
+    private LoadedConfiguration loaded;
+  }
+
+  /**
+   * Configuration files parsed from a single commit.
+   */
+  private static final class LoadedConfiguration {
+
+    private final ObjectId commitId;
+    private final Map<String, Properties> files;
+    private final Map<String, Properties> data;
+
+    LoadedConfiguration(ObjectId commitId, Map<String, Properties> files, Map<String, Properties> data) {
+      this.commitId = commitId;
+      this.files = files;
+      this.data = data;
+    }
 
+    boolean hasPaths(Collection<String> paths) {
+      return files.keySet().containsAll(paths) && paths.containsAll(files.keySet());
+    }
+
+    boolean sameFilesAs(LoadedConfiguration other) {
+      if (!files.keySet().equals(other.files.keySet())) {
+        return false;
+      }
+
+      for (Map.Entry<String, Properties> entry : files.entrySet()) {
+        if (other.files.get(entry.getKey()) != entry.getValue()) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
 }
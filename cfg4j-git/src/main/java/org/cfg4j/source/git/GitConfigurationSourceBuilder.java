@@ -21,9 +21,14 @@ import org.cfg4j.source.context.propertiesprovider.JsonBasedPropertiesProvider;
 import org.cfg4j.source.context.propertiesprovider.PropertiesProviderSelector;
 import org.cfg4j.source.context.propertiesprovider.PropertyBasedPropertiesProvider;
 import org.cfg4j.source.context.propertiesprovider.YamlBasedPropertiesProvider;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.transport.RefSpec;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Builder for {@link GitConfigurationSource}.
@@ -37,6 +42,13 @@ public class GitConfigurationSourceBuilder {
   private String tmpRepoPrefix;
   private ConfigFilesProvider configFilesProvider;
   private PropertiesProviderSelector propertiesProviderSelector;
+  private long watchInterval;
+  private TimeUnit watchTimeUnit;
+  private boolean workingTreeCheckout;
+  private final List<RefSpec> refSpecs;
+  private boolean bareClone;
+  private boolean sparseCheckout;
+  private Path cacheDirectory;
 
   /**
    * Construct {@link GitConfigurationSource}s builder
@@ -50,6 +62,12 @@ public class GitConfigurationSourceBuilder {
    * <li>tmpRepoPrefix: "cfg4j-config-git-config-repository"</li>
    * <li>propertiesProviderSelector: {@link PropertiesProviderSelector} with {@link PropertyBasedPropertiesProvider}
    * and {@link YamlBasedPropertiesProvider} providers</li>
+   * <li>watchInterval: 10 seconds</li>
+   * <li>workingTreeCheckout: false</li>
+   * <li>refSpecs: all branches</li>
+   * <li>bareClone: false</li>
+   * <li>sparseCheckout: false</li>
+   * <li>cacheDirectory: none (a temporary clone is used)</li>
    * </ul>
    */
   public GitConfigurationSourceBuilder() {
@@ -61,6 +79,12 @@ public class GitConfigurationSourceBuilder {
     propertiesProviderSelector = new PropertiesProviderSelector(
         new PropertyBasedPropertiesProvider(), new YamlBasedPropertiesProvider(), new JsonBasedPropertiesProvider()
     );
+    watchInterval = 10;
+    watchTimeUnit = TimeUnit.SECONDS;
+    workingTreeCheckout = false;
+    refSpecs = new ArrayList<>();
+    bareClone = false;
+    sparseCheckout = false;
   }
 
   /**
@@ -129,14 +153,112 @@ public class GitConfigurationSourceBuilder {
     return this;
   }
 
+  /**
+   * Set how often {@link GitConfigurationSource}s built by this builder check remote branch heads once a
+   * change listener is added
+   *
+   * @param watchInterval time between checks
+   * @param watchTimeUnit time unit for {@code watchInterval}
+   * @return this builder with watch interval set to {@code watchInterval}
+   */
+  public GitConfigurationSourceBuilder withWatchInterval(long watchInterval, TimeUnit watchTimeUnit) {
+    this.watchInterval = watchInterval;
+    this.watchTimeUnit = watchTimeUnit;
+    return this;
+  }
+
+  /**
+   * Set whether {@link GitConfigurationSource}s built by this builder check out a working tree and read configuration
+   * files from it. When disabled files are read straight from the git object database, which doesn't require
+   * any disk writes when switching between branches.
+   *
+   * @param workingTreeCheckout true to read configuration files from a checked out working tree
+   * @return this builder with working tree checkout set to {@code workingTreeCheckout}
+   */
+  public GitConfigurationSourceBuilder withWorkingTreeCheckout(boolean workingTreeCheckout) {
+    this.workingTreeCheckout = workingTreeCheckout;
+    return this;
+  }
+
+  /**
+   * Restrict branches fetched by {@link GitConfigurationSource}s built by this builder. Environments resolved
+   * to other branches won't be found. May be combined with {@link #withRefSpecs(String...)}.
+   *
+   * @param branches names of branches to fetch
+   * @return this builder with fetch restricted to {@code branches}
+   */
+  public GitConfigurationSourceBuilder withBranches(String... branches) {
+    for (String branch : branches) {
+      refSpecs.add(new RefSpec("+" + Constants.R_HEADS + branch + ":" + Constants.R_REMOTES
+          + Constants.DEFAULT_REMOTE_NAME + "/" + branch));
+    }
+    return this;
+  }
+
+  /**
+   * Restrict refs fetched by {@link GitConfigurationSource}s built by this builder. Destinations should be
+   * remote-tracking branches of the "origin" remote (e.g. "+refs/heads/env-*:refs/remotes/origin/env-*") so that
+   * they can be resolved to environments. May be combined with {@link #withBranches(String...)}.
+   *
+   * @param refSpecs ref specs to fetch
+   * @return this builder with fetch restricted to {@code refSpecs}
+   * @throws IllegalArgumentException when any of the ref specs is invalid
+   */
+  public GitConfigurationSourceBuilder withRefSpecs(String... refSpecs) {
+    for (String refSpec : refSpecs) {
+      this.refSpecs.add(new RefSpec(refSpec));
+    }
+    return this;
+  }
+
+  /**
+   * Set whether {@link GitConfigurationSource}s built by this builder keep a bare local clone. Can't be combined
+   * with {@link #withWorkingTreeCheckout(boolean)}.
+   *
+   * @param bareClone true to keep a bare clone
+   * @return this builder with bare clone set to {@code bareClone}
+   */
+  public GitConfigurationSourceBuilder withBareClone(boolean bareClone) {
+    this.bareClone = bareClone;
+    return this;
+  }
+
+  /**
+   * Set whether {@link GitConfigurationSource}s built by this builder check out only the configuration files
+   * provided by {@link ConfigFilesProvider} instead of the whole tree. Applies only with
+   * {@link #withWorkingTreeCheckout(boolean)} enabled.
+   *
+   * @param sparseCheckout true to check out only configuration files
+   * @return this builder with sparse checkout set to {@code sparseCheckout}
+   */
+  public GitConfigurationSourceBuilder withSparseCheckout(boolean sparseCheckout) {
+    this.sparseCheckout = sparseCheckout;
+    return this;
+  }
+
+  /**
+   * Set directory keeping repositories of {@link GitConfigurationSource}s built by this builder. Repositories are
+   * kept there (bare, one per repository URI) across restarts, shared by all JVMs on the host and updated with
+   * an incremental fetch on startup. Can't be combined with {@link #withWorkingTreeCheckout(boolean)}.
+   *
+   * @param cacheDirectory directory keeping cached repositories
+   * @return this builder with cache directory set to {@code cacheDirectory}
+   */
+  public GitConfigurationSourceBuilder withCacheDirectory(Path cacheDirectory) {
+    this.cacheDirectory = cacheDirectory;
+    return this;
+  }
+
   /**
    * Build a {@link GitConfigurationSource} using this builder's configuration
    *
    * @return new {@link GitConfigurationSource}
+   * @throws IllegalArgumentException when a bare or cached clone is combined with working tree checkout
    */
   public GitConfigurationSource build() {
     return new GitConfigurationSource(repositoryURI, tmpPath, tmpRepoPrefix, branchResolver, pathResolver,
-        configFilesProvider, propertiesProviderSelector);
+        configFilesProvider, propertiesProviderSelector, watchInterval, watchTimeUnit, workingTreeCheckout, refSpecs,
+        bareClone, sparseCheckout, cacheDirectory);
   }
 
   @Override
@@ -148,6 +270,13 @@ public class GitConfigurationSourceBuilder {
         ", tmpPath='" + tmpPath + '\'' +
         ", tmpRepoPrefix='" + tmpRepoPrefix + '\'' +
         ", configFilesProvider=" + configFilesProvider +
+        ", watchInterval=" + watchInterval +
+        ", watchTimeUnit=" + watchTimeUnit +
+        ", workingTreeCheckout=" + workingTreeCheckout +
+        ", refSpecs=" + refSpecs +
+        ", bareClone=" + bareClone +
+        ", sparseCheckout=" + sparseCheckout +
+        ", cacheDirectory=" + cacheDirectory +
         '}';
   }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.git;
+
+import static java.util.Objects.requireNonNull;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches branch heads of a remote git repository. Git offers no push notifications so the remote is polled, but
+ * each poll only lists remote refs (the equivalent of {@code git ls-remote --heads}) without fetching any objects.
+ */
+class RemoteRefWatcher implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RemoteRefWatcher.class);
+
+  private final String repositoryURI;
+  private final long interval;
+  private final TimeUnit timeUnit;
+  private final Runnable callback;
+  private Map<String, ObjectId> heads;
+  private ScheduledExecutorService executor;
+
+  /**
+   * Construct watcher listing branch heads of the repository at {@code repositoryURI} every {@code interval}
+   * and calling {@code callback} whenever any of them was created, moved or deleted.
+   *
+   * @param repositoryURI URI to the remote git repository
+   * @param interval      time between polls
+   * @param timeUnit      time unit for {@code interval}
+   * @param callback      callback to notify about changes
+   */
+  RemoteRefWatcher(String repositoryURI, long interval, TimeUnit timeUnit, Runnable callback) {
+    this.repositoryURI = requireNonNull(repositoryURI);
+    this.interval = interval;
+    this.timeUnit = requireNonNull(timeUnit);
+    this.callback = requireNonNull(callback);
+  }
+
+  /**
+   * Start polling. Does nothing when already started.
+   */
+  synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "cfg4j-git-watcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(this::poll, 0, interval, timeUnit);
+  }
+
+  private void poll() {
+    Map<String, ObjectId> currentHeads = new HashMap<>();
+    try {
+      for (Ref ref : Git.lsRemoteRepository().setRemote(repositoryURI).setHeads(true).call()) {
+        currentHeads.put(ref.getName(), ref.getObjectId());
+      }
+    } catch (Exception e) {
+      LOG.warn("Unable to list refs of remote repository: " + repositoryURI, e);
+      return;
+    }
+
+    boolean changed = heads != null && !heads.equals(currentHeads);
+    heads = currentHeads;
+
+    if (changed) {
+      LOG.debug("Branch heads changed in remote repository: " + repositoryURI);
+      callback.run();
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "RemoteRefWatcher{" +
+        "repositoryURI='" + repositoryURI + '\'' +
+        ", interval=" + interval +
+        ", timeUnit=" + timeUnit +
+        '}';
+  }
+}
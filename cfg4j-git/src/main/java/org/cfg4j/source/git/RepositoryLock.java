@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.git;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lock on a repository shared by many threads and JVMs. Combines a JVM-wide lock with a {@link FileLock}
+ * on a lock file, as file locks are held on behalf of the whole JVM and can't be used to exclude its threads.
+ */
+class RepositoryLock {
+
+  private static final ConcurrentMap<Path, ReentrantLock> JVM_LOCKS = new ConcurrentHashMap<>();
+
+  private final Path lockFile;
+  private final ReentrantLock jvmLock;
+
+  /**
+   * Construct lock backed by {@code lockFile}. The file is created when missing.
+   *
+   * @param lockFile lock file to use
+   */
+  RepositoryLock(Path lockFile) {
+    this.lockFile = requireNonNull(lockFile).toAbsolutePath().normalize();
+    jvmLock = JVM_LOCKS.computeIfAbsent(this.lockFile, path -> new ReentrantLock());
+  }
+
+  /**
+   * Acquire the lock, blocking until it's available. Close the returned handle to release it. The lock is not
+   * reentrant.
+   *
+   * @return handle releasing the lock when closed
+   * @throws IOException when unable to lock the lock file
+   */
+  Closeable acquire() throws IOException {
+    jvmLock.lock();
+
+    FileChannel channel = null;
+    try {
+      channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      FileLock fileLock = channel.lock();
+      FileChannel lockedChannel = channel;
+
+      return () -> {
+        try {
+          fileLock.release();
+          lockedChannel.close();
+        } finally {
+          jvmLock.unlock();
+        }
+      };
+    } catch (IOException | RuntimeException e) {
+      if (channel != null) {
+        channel.close();
+      }
+      jvmLock.unlock();
+      throw e;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "RepositoryLock{" +
+        "lockFile=" + lockFile +
+        '}';
+  }
+}
@@ -16,24 +16,39 @@
 package org.cfg4j.source.git;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 import org.assertj.core.data.MapEntry;
+import org.cfg4j.source.ConfigurationSource.ConfigurationState;
 import org.cfg4j.source.SourceCommunicationException;
+import org.cfg4j.source.WatchableConfigurationSource.ChangeListener;
 import org.cfg4j.source.context.environment.DefaultEnvironment;
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.ImmutableEnvironment;
 import org.cfg4j.source.context.environment.MissingEnvironmentException;
 import org.cfg4j.source.context.filesprovider.ConfigFilesProvider;
+import org.cfg4j.utils.FileUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class GitConfigurationSourceIntegrationTest {
 
@@ -190,6 +205,220 @@ public class GitConfigurationSourceIntegrationTest {
     }
   }
 
+  @Test
+  public void getConfigurationReportsNoChangeWhenBranchDidNotMove() throws Exception {
+    try (GitConfigurationSource gitConfigurationSource = getSourceForRemoteRepoWithDefaults()) {
+      Environment environment = new DefaultEnvironment();
+
+      assertThat(gitConfigurationSource.getConfiguration(environment).isStateChanged()).isTrue();
+      assertThat(gitConfigurationSource.getConfiguration(environment).isStateChanged()).isFalse();
+    }
+  }
+
+  @Test
+  public void getConfigurationReportsNoChangeWhenOnlyOtherFilesChanged() throws Exception {
+    try (GitConfigurationSource gitConfigurationSource = getSourceForRemoteRepoWithDefaults()) {
+      Environment environment = new DefaultEnvironment();
+      gitConfigurationSource.getConfiguration(environment);
+
+      remoteRepo.changeProperty(Paths.get("otherConfig.properties"), "otherConfig.setting", "changedValue");
+
+      assertThat(gitConfigurationSource.getConfiguration(environment).isStateChanged()).isFalse();
+    }
+  }
+
+  @Test
+  public void getConfigurationReparsesOnlyChangedFiles() throws Exception {
+    ConfigFilesProvider configFilesProvider = new ConfigFilesProvider() {
+      @Override
+      public Iterable<Path> getConfigFiles() {
+        return Arrays.asList(Paths.get("application.properties"), Paths.get("otherConfig.properties"));
+      }
+    };
+    Environment environment = new DefaultEnvironment();
+
+    try (GitConfigurationSource gitConfigurationSource = getSourceForRemoteRepoWithFilesProvider(configFilesProvider)) {
+      ConfigurationState first = gitConfigurationSource.getConfiguration(environment);
+
+      remoteRepo.changeProperty(Paths.get("application.properties"), "some.setting", "changedValue");
+
+      ConfigurationState second = gitConfigurationSource.getConfiguration(environment);
+      assertThat(second.isStateChanged()).isTrue();
+      assertThat(second.getData().get("application.properties").getProperty("some.setting")).isEqualTo("changedValue");
+      assertThat(second.getData().get("otherConfig.properties")).isSameAs(first.getData().get("otherConfig.properties"));
+    }
+  }
+
+  @Test
+  public void getConfigurationReadsBranchesWithWorkingTreeCheckout() throws Exception {
+    GitConfigurationSource source = getSourceBuilderForRemoteRepoWithDefaults()
+        .withWorkingTreeCheckout(true)
+        .build();
+    source.init();
+
+    try (GitConfigurationSource gitConfigurationSource = source) {
+      assertThat(gitConfigurationSource.getConfiguration(new ImmutableEnvironment(TEST_ENV_BRANCH)).getData()
+          .get("application.properties").getProperty("some.setting")).isEqualTo("testValue");
+      assertThat(gitConfigurationSource.getConfiguration(new DefaultEnvironment()).getData()
+          .get("application.properties").getProperty("some.setting")).isEqualTo("masterValue");
+    }
+  }
+
+  @Test
+  public void getConfigurationReadsFromBareClone() throws Exception {
+    GitConfigurationSource source = getSourceBuilderForRemoteRepoWithDefaults()
+        .withBareClone(true)
+        .build();
+    source.init();
+
+    try (GitConfigurationSource gitConfigurationSource = source) {
+      assertThat(gitConfigurationSource.getConfiguration(new ImmutableEnvironment(TEST_ENV_BRANCH)).getData()
+          .get("application.properties").getProperty("some.setting")).isEqualTo("testValue");
+    }
+  }
+
+  @Test
+  public void getConfigurationReadsFromSparseCheckout() throws Exception {
+    GitConfigurationSource source = getSourceBuilderForRemoteRepoWithDefaults()
+        .withWorkingTreeCheckout(true)
+        .withSparseCheckout(true)
+        .build();
+    source.init();
+
+    try (GitConfigurationSource gitConfigurationSource = source) {
+      assertThat(gitConfigurationSource.getConfiguration(new ImmutableEnvironment(TEST_ENV_BRANCH)).getData()
+          .get("application.properties").getProperty("some.setting")).isEqualTo("testValue");
+    }
+  }
+
+  @Test
+  public void getConfigurationThrowsOnBranchNotFetched() throws Exception {
+    GitConfigurationSource source = getSourceBuilderForRemoteRepoWithDefaults()
+        .withBranches(DEFAULT_BRANCH)
+        .build();
+    source.init();
+
+    try (GitConfigurationSource gitConfigurationSource = source) {
+      expectedException.expect(MissingEnvironmentException.class);
+      gitConfigurationSource.getConfiguration(new ImmutableEnvironment(TEST_ENV_BRANCH));
+    }
+  }
+
+  @Test
+  public void buildThrowsOnWorkingTreeCheckoutOfBareClone() throws Exception {
+    expectedException.expect(IllegalArgumentException.class);
+
+    getSourceBuilderForRemoteRepoWithDefaults()
+        .withBareClone(true)
+        .withWorkingTreeCheckout(true)
+        .build();
+  }
+
+  @Test
+  public void reusesCachedRepositoryAfterClose() throws Exception {
+    Path cacheDirectory = Files.createTempDirectory("cfg4j-test-git-cache");
+
+    try {
+      try (GitConfigurationSource gitConfigurationSource = getSourceForRemoteRepoWithCache(cacheDirectory)) {
+        gitConfigurationSource.getConfiguration(new DefaultEnvironment());
+      }
+
+      remoteRepo.changeProperty(Paths.get("application.properties"), "some.setting", "changedValue");
+
+      try (GitConfigurationSource gitConfigurationSource = getSourceForRemoteRepoWithCache(cacheDirectory)) {
+        assertThat(gitConfigurationSource.getConfiguration(new DefaultEnvironment()).getData()
+            .get("application.properties").getProperty("some.setting")).isEqualTo("changedValue");
+      }
+    } finally {
+      new FileUtils().deleteDir(cacheDirectory);
+    }
+  }
+
+  @Test
+  public void replacesUnusableCachedRepository() throws Exception {
+    Path cacheDirectory = Files.createTempDirectory("cfg4j-test-git-cache");
+
+    try {
+      try (GitConfigurationSource gitConfigurationSource = getSourceForRemoteRepoWithCache(cacheDirectory)) {
+        gitConfigurationSource.getConfiguration(new DefaultEnvironment());
+      }
+
+      try (DirectoryStream<Path> entries = Files.newDirectoryStream(cacheDirectory)) {
+        for (Path entry : entries) {
+          if (Files.isDirectory(entry)) {
+            Files.delete(entry.resolve("HEAD"));
+          }
+        }
+      }
+
+      try (GitConfigurationSource gitConfigurationSource = getSourceForRemoteRepoWithCache(cacheDirectory)) {
+        assertThat(gitConfigurationSource.getConfiguration(new DefaultEnvironment()).getData()
+            .get("application.properties").getProperty("some.setting")).isEqualTo("masterValue");
+      }
+    } finally {
+      new FileUtils().deleteDir(cacheDirectory);
+    }
+  }
+
+  @Test
+  public void getConfigurationTracksChangesPerEnvironment() throws Exception {
+    try (GitConfigurationSource gitConfigurationSource = getSourceForRemoteRepoWithDefaults()) {
+      Environment masterEnvironment = new DefaultEnvironment();
+      Environment testEnvironment = new ImmutableEnvironment(TEST_ENV_BRANCH);
+
+      gitConfigurationSource.getConfiguration(masterEnvironment);
+      gitConfigurationSource.getConfiguration(testEnvironment);
+
+      assertThat(gitConfigurationSource.getConfiguration(masterEnvironment).isStateChanged()).isFalse();
+      assertThat(gitConfigurationSource.getConfiguration(testEnvironment).isStateChanged()).isFalse();
+    }
+  }
+
+  @Test
+  public void getConfigurationServesEnvironmentsConcurrently() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    try (GitConfigurationSource gitConfigurationSource = getSourceForRemoteRepoWithDefaults()) {
+      List<Future<String>> masterValues = new ArrayList<>();
+      List<Future<String>> testValues = new ArrayList<>();
+
+      for (int i = 0; i < 20; i++) {
+        masterValues.add(executor.submit(() -> gitConfigurationSource.getConfiguration(new DefaultEnvironment())
+            .getData().get("application.properties").getProperty("some.setting")));
+        testValues.add(executor.submit(() -> gitConfigurationSource.getConfiguration(new ImmutableEnvironment(TEST_ENV_BRANCH))
+            .getData().get("application.properties").getProperty("some.setting")));
+      }
+
+      for (Future<String> value : masterValues) {
+        assertThat(value.get()).isEqualTo("masterValue");
+      }
+      for (Future<String> value : testValues) {
+        assertThat(value.get()).isEqualTo("testValue");
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void notifiesListenersWhenRemoteBranchChanges() throws Exception {
+    ChangeListener listener = mock(ChangeListener.class);
+    GitConfigurationSource source = getSourceBuilderForRemoteRepoWithDefaults()
+        .withWatchInterval(50, TimeUnit.MILLISECONDS)
+        .build();
+    source.init();
+
+    try (GitConfigurationSource gitConfigurationSource = source) {
+      gitConfigurationSource.addChangeListener(listener);
+      // Let the watcher record current branch heads first
+      Thread.sleep(500);
+
+      remoteRepo.changeProperty(Paths.get("application.properties"), "some.setting", "changedValue");
+
+      verify(listener, timeout(5000).atLeastOnce()).onChange();
+    }
+  }
+
   private GitConfigurationSource getSourceForRemoteRepoWithDefaults() {
     GitConfigurationSource source = getSourceBuilderForRemoteRepoWithDefaults().build();
     source.init();
@@ -227,6 +456,16 @@ public class GitConfigurationSourceIntegrationTest {
     return source;
   }
 
+  private GitConfigurationSource getSourceForRemoteRepoWithCache(Path cacheDirectory) {
+    GitConfigurationSource source = getSourceBuilderForRemoteRepoWithDefaults()
+        .withCacheDirectory(cacheDirectory)
+        .build();
+
+    source.init();
+
+    return source;
+  }
+
   private GitConfigurationSourceBuilder getSourceBuilderForRemoteRepoWithDefaults() {
     return new GitConfigurationSourceBuilder()
         .withRepositoryURI(remoteRepo.dirPath.toString());
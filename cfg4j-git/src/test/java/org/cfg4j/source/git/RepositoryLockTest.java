@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-2016 Norbert Potocki (norbert.potocki@nort.pl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.cfg4j.source.git;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+public class RepositoryLockTest {
+
+  private Path lockFile;
+
+  @Before
+  public void setUp() throws Exception {
+    lockFile = Files.createTempFile("cfg4j-test", ".lock");
+    Files.delete(lockFile);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(lockFile);
+  }
+
+  @Test
+  public void createsLockFile() throws Exception {
+    try (Closeable lock = new RepositoryLock(lockFile).acquire()) {
+      assertThat(Files.exists(lockFile)).isTrue();
+    }
+  }
+
+  @Test
+  public void excludesOtherThreads() throws Exception {
+    RepositoryLock repositoryLock = new RepositoryLock(lockFile);
+    AtomicBoolean acquired = new AtomicBoolean();
+    CountDownLatch released = new CountDownLatch(1);
+
+    Thread thread;
+    try (Closeable lock = repositoryLock.acquire()) {
+      thread = new Thread(() -> {
+        try (Closeable otherLock = new RepositoryLock(lockFile).acquire()) {
+          acquired.set(true);
+          released.countDown();
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      });
+      thread.start();
+
+      assertThat(released.await(200, TimeUnit.MILLISECONDS)).isFalse();
+      assertThat(acquired.get()).isFalse();
+    }
+
+    assertThat(released.await(5, TimeUnit.SECONDS)).isTrue();
+    thread.join();
+  }
+
+  @Test
+  public void canBeAcquiredAgainAfterRelease() throws Exception {
+    RepositoryLock repositoryLock = new RepositoryLock(lockFile);
+
+    repositoryLock.acquire().close();
+
+    try (Closeable lock = repositoryLock.acquire()) {
+      assertThat(Files.exists(lockFile)).isTrue();
+    }
+  }
+}
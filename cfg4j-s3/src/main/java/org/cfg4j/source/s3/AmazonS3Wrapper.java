@@ -7,6 +7,18 @@ public interface AmazonS3Wrapper {
   boolean isFileExist(String fileName);
   boolean isBucketExist(String bucketName);
   S3Object getFile(String fileName);
+
+  /**
+   * Get a file unless its current ETag matches {@code eTag} (a conditional {@code If-None-Match} GET).
+   *
+   * @param fileName key of the file to get
+   * @param eTag     ETag of the previously read version of the file, {@code null} to get the file unconditionally
+   * @return the file or {@code null} when it wasn't modified
+   */
+  default S3Object getFileIfModified(String fileName, String eTag) {
+    return getFile(fileName);
+  }
+
   String getFileContent(String fileName);
   String getFileContent(S3Object obj);
   String getBucketName();
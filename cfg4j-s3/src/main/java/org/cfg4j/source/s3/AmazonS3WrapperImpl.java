@@ -45,6 +45,17 @@ public class AmazonS3WrapperImpl extends AWSWrapper implements AmazonS3Wrapper {
     return s3client.getObject(new GetObjectRequest(bucketName, fileName));
   }
 
+  @Override
+  public S3Object getFileIfModified(String fileName, String eTag) {
+    GetObjectRequest request = new GetObjectRequest(bucketName, fileName);
+    if (eTag != null) {
+      request.withNonmatchingETagConstraint(eTag);
+    }
+
+    // Returns null when S3 responds with 304 Not Modified
+    return s3client.getObject(request);
+  }
+
   @Override
   public String getFileContent(String fileName) {
     S3Object fileData = getFile(fileName);
@@ -1,30 +1,66 @@
 package org.cfg4j.source.s3;
 
+import static java.util.Objects.requireNonNull;
+
 import com.amazonaws.services.kms.model.NotFoundException;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.S3Object;
 import org.cfg4j.source.ConfigurationSource;
 import org.cfg4j.source.context.environment.Environment;
+import org.cfg4j.source.context.filesprovider.ConfigFilesProvider;
+import org.cfg4j.source.context.propertiesprovider.JsonBasedPropertiesProvider;
+import org.cfg4j.source.context.propertiesprovider.PropertiesProvider;
+import org.cfg4j.source.context.propertiesprovider.PropertiesProviderSelector;
+import org.cfg4j.source.context.propertiesprovider.PropertyBasedPropertiesProvider;
+import org.cfg4j.source.context.propertiesprovider.YamlBasedPropertiesProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Note: use {@link S3ConfigurationSourceBuilder} for building instances of this class.
  * <p>
- *     Read configuration files from AWS S3.
+ *     Read configuration files from AWS S3. File paths are provided by a {@link ConfigFilesProvider} and are treated
+ *     as object keys relative to the environment name (the key prefix). Files are fetched in parallel, parsed using
+ *     a {@link PropertiesProvider} chosen by {@link PropertiesProviderSelector} and keyed by file name, the same way
+ *     {@code FilesConfigurationSource} does. When no {@link ConfigFilesProvider} is given the environment name
+ *     itself is the key of the only configuration file.
+ * </p>
+ * <p>
+ *     The ETag of each file is remembered and subsequent reads are conditional ({@code If-None-Match}),
+ *     so unmodified files are neither downloaded nor parsed again. Call {@link #close()} to release fetching threads.
  * </p>
  */
-public class S3ConfigurationSource implements ConfigurationSource {
+public class S3ConfigurationSource implements ConfigurationSource, Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(S3ConfigurationSource.class);
+  private static final AtomicInteger FETCHER_COUNTER = new AtomicInteger();
+
   private boolean initialized = false;
   private AmazonS3Wrapper s3wrapper;
+  private final ConfigFilesProvider configFilesProvider;
+  private final PropertiesProviderSelector propertiesProviderSelector;
+  private final ExecutorService fetchExecutor;
+  private final ConcurrentMap<String, FileSnapshot> fileSnapshots = new ConcurrentHashMap<>();
 
   /**
    * Note: use {@link S3ConfigurationSourceBuilder} for building instances of this class.
@@ -34,7 +70,7 @@ public class S3ConfigurationSource implements ConfigurationSource {
    * @param s3wrapper Pre-configured wrapper for the S3 service
    */
   public S3ConfigurationSource(AmazonS3Wrapper s3wrapper){
-    this.s3wrapper = s3wrapper;
+    this(s3wrapper, environmentKeyProvider(), defaultPropertiesProviderSelector(), 1);
   }
 
 
@@ -45,18 +81,44 @@ public class S3ConfigurationSource implements ConfigurationSource {
    * @param bucketName The name of the bucket where configuration files are located
    */
   public S3ConfigurationSource(String accessKey, String secretKey, String bucketName) {
-    this.s3wrapper = new AmazonS3WrapperImpl(accessKey, secretKey, bucketName);
+    this(new AmazonS3WrapperImpl(accessKey, secretKey, bucketName));
+  }
+
+  /**
+   * Note: use {@link S3ConfigurationSourceBuilder} for building instances of this class.
+   * @param s3wrapper Pre-configured wrapper for the S3 service
+   * @param configFilesProvider {@link ConfigFilesProvider} supplying keys of configuration files relative to
+   *                            the environment name
+   * @param propertiesProviderSelector selector used for choosing {@link PropertiesProvider} based on a file extension
+   * @param parallelism maximum number of files fetched concurrently
+   */
+  public S3ConfigurationSource(AmazonS3Wrapper s3wrapper, ConfigFilesProvider configFilesProvider,
+                               PropertiesProviderSelector propertiesProviderSelector, int parallelism) {
+    this.s3wrapper = requireNonNull(s3wrapper);
+    this.configFilesProvider = requireNonNull(configFilesProvider);
+    this.propertiesProviderSelector = requireNonNull(propertiesProviderSelector);
+
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism has to be positive: " + parallelism);
+    }
+
+    fetchExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+      Thread thread = new Thread(runnable, "cfg4j-s3-fetcher-" + FETCHER_COUNTER.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
   }
 
   /**
-   * Get the configuration properties for the corresponding environment from S3
+   * Get the configuration properties for the corresponding environment from S3. Keys of configuration files are
+   * formed by prepending the environment name to paths from {@link ConfigFilesProvider}. The returned data is keyed
+   * by file name. The state is marked as not changed when none of the files was modified since the previous call.
    * @param environment environment to use
-   * @return A {@link Properties} collection extracted from the configuration file
+   * @return A {@link Properties} collection per configuration file
    *
    * @throws IllegalStateException when {@code init()} is not called prior to calling {@code getConfiguration}
-   * @throws IllegalArgumentException when an empty string is passed in for the {@link Environment} name
-   * or when the file cannot be parsed properly
-   * @throws NotFoundException when a file corresponding to the requested environment is not found
+   * @throws IllegalArgumentException when the resulting file key is empty or when a file cannot be parsed properly
+   * @throws NotFoundException when a configuration file is not found
    */
   @Override
   public ConfigurationState getConfiguration(Environment environment) {
@@ -66,22 +128,88 @@ public class S3ConfigurationSource implements ConfigurationSource {
       throw new IllegalStateException("Configuration source has to be successfully initialized before you request configuration.");
     }
 
-    if(environment.getName().isEmpty()){
-      throw new IllegalArgumentException("Environment must not be null or empty");
+    List<String> fileKeys = new ArrayList<>();
+    for (Path path : configFilesProvider.getConfigFiles()) {
+      fileKeys.add(fileKey(environment.getName(), path));
     }
 
-    if (!s3wrapper.isFileExist(environment.getName())) {
-      throw new NotFoundException(MessageFormat.format("File name {0} does not exist", environment.getName()));
+    List<FileSnapshot> snapshots = fetchAll(fileKeys);
+
+    Map<String, Properties> propertiesMap = new HashMap<>();
+    boolean changed = false;
+    for (int i = 0; i < fileKeys.size(); i++) {
+      FileSnapshot snapshot = snapshots.get(i);
+      changed |= fileSnapshots.put(fileKeys.get(i), snapshot) != snapshot;
+      propertiesMap.put(fileName(fileKeys.get(i)), snapshot.properties);
+    }
+
+    return new ConfigurationState(propertiesMap, changed);
+  }
+
+  private List<FileSnapshot> fetchAll(List<String> fileKeys) {
+    List<FileSnapshot> snapshots = new ArrayList<>(fileKeys.size());
+
+    if (fileKeys.size() == 1) {
+      snapshots.add(fetch(fileKeys.get(0)));
+      return snapshots;
+    }
+
+    List<Future<FileSnapshot>> futures = new ArrayList<>(fileKeys.size());
+    for (String fileKey : fileKeys) {
+      futures.add(fetchExecutor.submit(() -> fetch(fileKey)));
+    }
+
+    try {
+      for (Future<FileSnapshot> future : futures) {
+        snapshots.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while fetching configuration files", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Unable to fetch configuration files", e.getCause());
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+
+    return snapshots;
+  }
+
+  /**
+   * @return snapshot of the given file, the previous one if the file wasn't modified since it was fetched
+   */
+  private FileSnapshot fetch(String fileKey) {
+    FileSnapshot previous = fileSnapshots.get(fileKey);
+
+    S3Object fileFromS3;
+    try {
+      fileFromS3 = s3wrapper.getFileIfModified(fileKey, previous == null ? null : previous.eTag);
+    } catch (AmazonS3Exception e) {
+      if (e.getStatusCode() == 404) {
+        fileSnapshots.remove(fileKey);
+        throw new NotFoundException(MessageFormat.format("File name {0} does not exist", fileKey));
+      }
+      throw e;
     }
 
-    S3Object fileFromS3 = s3wrapper.getFile(environment.getName());
+    if (fileFromS3 == null) {
+      if (previous == null) {
+        throw new NotFoundException(MessageFormat.format("File name {0} does not exist", fileKey));
+      }
+
+      LOG.trace("Configuration file " + fileKey + " not modified");
+      return previous;
+    }
 
-    Map<String,Properties> propertiesMap = new HashMap<>();
-    Properties properties = new Properties();
+    PropertiesProvider provider = propertiesProviderSelector.getProvider(fileName(fileKey));
+    Properties properties;
     try (InputStream input = fileFromS3.getObjectContent()) {
-      properties.load(input);
-    } catch (IOException e) {
-      throw new IllegalArgumentException("Unable to load configuration from " + environment.getName() + " file", e);
+      properties = provider.getProperties(input);
+    } catch (IOException | IllegalStateException e) {
+      throw new IllegalArgumentException("Unable to load configuration from " + fileKey + " file", e);
     }
     finally {
       try {
@@ -91,10 +219,42 @@ public class S3ConfigurationSource implements ConfigurationSource {
       }
     }
 
-    //TODO: ARKA : This doesnot work I guess .
-    propertiesMap.put(fileFromS3.getBucketName(),properties);
+    String eTag = fileFromS3.getObjectMetadata() == null ? null : fileFromS3.getObjectMetadata().getETag();
+    return new FileSnapshot(eTag, properties);
+  }
+
+  private static String fileKey(String environmentName, Path path) {
+    String prefix = environmentName.startsWith("/") ? environmentName.substring(1) : environmentName;
+    String file = path.toString().replace('\\', '/');
+
+    String key;
+    if (file.isEmpty()) {
+      key = prefix;
+    } else if (prefix.isEmpty() || prefix.endsWith("/")) {
+      key = prefix + file;
+    } else {
+      key = prefix + "/" + file;
+    }
+
+    if (key.isEmpty()) {
+      throw new IllegalArgumentException("Environment must not be null or empty");
+    }
+
+    return key;
+  }
 
-    return new ConfigurationState(propertiesMap, true);
+  private static String fileName(String fileKey) {
+    return fileKey.substring(fileKey.lastIndexOf('/') + 1);
+  }
+
+  static ConfigFilesProvider environmentKeyProvider() {
+    return () -> Collections.singletonList(Paths.get(""));
+  }
+
+  static PropertiesProviderSelector defaultPropertiesProviderSelector() {
+    return new PropertiesProviderSelector(
+        new PropertyBasedPropertiesProvider(), new YamlBasedPropertiesProvider(), new JsonBasedPropertiesProvider()
+    );
   }
 
   /**
@@ -111,12 +271,33 @@ public class S3ConfigurationSource implements ConfigurationSource {
     initialized = true;
   }
 
+  /**
+   * Stop threads used for fetching configuration files.
+   */
+  @Override
+  public void close() {
+    fetchExecutor.shutdownNow();
+  }
+
   public String getBucketName() {
     return s3wrapper.getBucketName();
   }
 
   public void setBucketName(String bucketName) {
     s3wrapper.setBucketName(bucketName);
+    fileSnapshots.clear();
   }
-}
 
+  /**
+   * Properties parsed from a configuration file along with the ETag of the file version they were parsed from.
+   */
+  private static final class FileSnapshot {
+    private final String eTag;
+    private final Properties properties;
+
+    FileSnapshot(String eTag, Properties properties) {
+      this.eTag = eTag;
+      this.properties = properties;
+    }
+  }
+}
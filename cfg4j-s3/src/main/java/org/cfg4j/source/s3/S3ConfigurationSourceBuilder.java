@@ -1,5 +1,8 @@
 package org.cfg4j.source.s3;
 
+import org.cfg4j.source.context.filesprovider.ConfigFilesProvider;
+import org.cfg4j.source.context.propertiesprovider.PropertiesProviderSelector;
+
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -10,6 +13,9 @@ public class S3ConfigurationSourceBuilder {
   private String accessKey;
   private String secretKey;
   private String bucketName;
+  private ConfigFilesProvider configFilesProvider = S3ConfigurationSource.environmentKeyProvider();
+  private PropertiesProviderSelector propertiesProviderSelector = S3ConfigurationSource.defaultPropertiesProviderSelector();
+  private int parallelism = 4;
 
   public S3ConfigurationSourceBuilder withCredentials(String accessKey, String secretKey, String bucketName) {
     this.accessKey = accessKey;
@@ -26,12 +32,47 @@ public class S3ConfigurationSourceBuilder {
     return this;
   }
 
+  /**
+   * Set {@link ConfigFilesProvider} supplying keys of configuration files relative to the environment name.
+   * By default the environment name is the key of the only configuration file.
+   *
+   * @param configFilesProvider provider to use
+   * @return this builder with {@link ConfigFilesProvider} set to provided parameter
+   */
+  public S3ConfigurationSourceBuilder withConfigFilesProvider(ConfigFilesProvider configFilesProvider) {
+    this.configFilesProvider = configFilesProvider;
+    return this;
+  }
+
+  /**
+   * Set {@link PropertiesProviderSelector} used for parsing configuration files based on their extension.
+   * By default properties, YAML and JSON files are supported.
+   *
+   * @param propertiesProviderSelector selector to use
+   * @return this builder with {@link PropertiesProviderSelector} set to provided parameter
+   */
+  public S3ConfigurationSourceBuilder withPropertiesProviderSelector(PropertiesProviderSelector propertiesProviderSelector) {
+    this.propertiesProviderSelector = propertiesProviderSelector;
+    return this;
+  }
+
+  /**
+   * Set the maximum number of configuration files fetched concurrently (4 by default).
+   *
+   * @param parallelism number of files to fetch concurrently
+   * @return this builder with parallelism set to provided parameter
+   */
+  public S3ConfigurationSourceBuilder withParallelism(int parallelism) {
+    this.parallelism = parallelism;
+    return this;
+  }
+
   public S3ConfigurationSource build(AmazonS3Wrapper s3Wrapper) {
-    return new S3ConfigurationSource(s3Wrapper);
+    return new S3ConfigurationSource(s3Wrapper, configFilesProvider, propertiesProviderSelector, parallelism);
   }
 
   public S3ConfigurationSource build() {
-    return new S3ConfigurationSource(accessKey, secretKey, bucketName);
+    return build(new AmazonS3WrapperImpl(accessKey, secretKey, bucketName));
   }
 
   private void loadProperties(String propFileName) throws IOException {
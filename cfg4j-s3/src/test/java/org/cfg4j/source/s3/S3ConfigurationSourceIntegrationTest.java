@@ -1,8 +1,12 @@
 package org.cfg4j.source.s3;
 
 import com.amazonaws.services.kms.model.NotFoundException;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 import org.cfg4j.source.ConfigurationSource;
+import org.cfg4j.source.ConfigurationSource.ConfigurationState;
 import org.cfg4j.source.context.environment.Environment;
 import org.cfg4j.source.context.environment.ImmutableEnvironment;
 import org.junit.Before;
@@ -12,9 +16,15 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.io.ByteArrayInputStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Properties;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -30,13 +40,7 @@ public class S3ConfigurationSourceIntegrationTest {
 
   @Before
   public void setUp() throws Exception {
-    S3Object s3Object = new S3Object();
-    s3Object.setKey(FILE_NAME);
-    String fileContent = "app.version=1.0.0";
-    s3Object.setObjectContent(new ByteArrayInputStream(fileContent.getBytes()));
-
-    when(s3Wrapper.getFile(FILE_NAME)).thenReturn(s3Object);
-    when(s3Wrapper.isFileExist(FILE_NAME)).thenReturn(true);
+    when(s3Wrapper.getFileIfModified(FILE_NAME, null)).thenReturn(s3Object("app.version=1.0.0", "etag-1"));
     String BUCKET_NAME = "configurations-bucket";
     when(s3Wrapper.getBucketName()).thenReturn(BUCKET_NAME);
     when(s3Wrapper.isBucketExist(BUCKET_NAME)).thenReturn(true);
@@ -47,10 +51,62 @@ public class S3ConfigurationSourceIntegrationTest {
   @Test
   public void getPropertyWithSuccess() throws Exception {
     s3Source.init();
-    Properties properties = s3Source.getConfiguration(environment);
+    Properties properties = s3Source.getConfiguration(environment).getData().get(FILE_NAME);
     assertThat(properties.getProperty("app.version")).isEqualTo("1.0.0");
   }
 
+  @Test
+  public void getConfigurationReportsChangeOnFirstRead() throws Exception {
+    s3Source.init();
+
+    assertThat(s3Source.getConfiguration(environment).isStateChanged()).isTrue();
+  }
+
+  @Test
+  public void getConfigurationKeepsPreviousPropertiesWhenFileNotModified() throws Exception {
+    s3Source.init();
+    Properties before = s3Source.getConfiguration(environment).getData().get(FILE_NAME);
+    when(s3Wrapper.getFileIfModified(FILE_NAME, "etag-1")).thenReturn(null);
+
+    ConfigurationState state = s3Source.getConfiguration(environment);
+
+    assertThat(state.isStateChanged()).isFalse();
+    assertThat(state.getData().get(FILE_NAME)).isSameAs(before);
+  }
+
+  @Test
+  public void getConfigurationReloadsModifiedFile() throws Exception {
+    s3Source.init();
+    s3Source.getConfiguration(environment);
+    when(s3Wrapper.getFileIfModified(FILE_NAME, "etag-1")).thenReturn(s3Object("app.version=2.0.0", "etag-2"));
+
+    ConfigurationState state = s3Source.getConfiguration(environment);
+
+    assertThat(state.isStateChanged()).isTrue();
+    assertThat(state.getData().get(FILE_NAME).getProperty("app.version")).isEqualTo("2.0.0");
+    verify(s3Wrapper).getFileIfModified(FILE_NAME, "etag-1");
+  }
+
+  @Test
+  public void getConfigurationUsesSingleRequestPerRead() throws Exception {
+    s3Source.init();
+    s3Source.getConfiguration(environment);
+
+    verify(s3Wrapper, never()).isFileExist(anyString());
+    verify(s3Wrapper, never()).getFile(anyString());
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void getConfigurationThrowsWhenFileRemoved() throws Exception {
+    s3Source.init();
+    s3Source.getConfiguration(environment);
+    AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+    notFound.setStatusCode(404);
+    when(s3Wrapper.getFileIfModified(FILE_NAME, "etag-1")).thenThrow(notFound);
+
+    s3Source.getConfiguration(environment);
+  }
+
   @Test(expected = NotFoundException.class)
   public void getNoExistFile() throws Exception {
     s3Source.init();
@@ -58,8 +114,63 @@ public class S3ConfigurationSourceIntegrationTest {
     s3Source.getConfiguration(new ImmutableEnvironment(fileName));
   }
 
+  @Test
+  public void getConfigurationReadsAllFilesUnderEnvironmentPrefix() throws Exception {
+    S3ConfigurationSource source = new S3ConfigurationSourceBuilder()
+        .withConfigFilesProvider(() -> Arrays.asList(Paths.get("application.properties"), Paths.get("db/database.yaml")))
+        .build(s3Wrapper);
+    when(s3Wrapper.getFileIfModified("prod/application.properties", null)).thenReturn(s3Object("app.version=1.0.0", "etag-1"));
+    when(s3Wrapper.getFileIfModified("prod/db/database.yaml", null)).thenReturn(s3Object("db:\n  pool: 10", "etag-2"));
+    source.init();
+
+    ConfigurationState state = source.getConfiguration(new ImmutableEnvironment("prod"));
+
+    assertThat(state.getData().get("application.properties").getProperty("app.version")).isEqualTo("1.0.0");
+    assertThat(state.getData().get("database.yaml").get("db")).isEqualTo(Collections.singletonMap("pool", 10));
+    source.close();
+  }
+
+  @Test
+  public void getConfigurationReportsChangeWhenAnyFileModified() throws Exception {
+    S3ConfigurationSource source = new S3ConfigurationSourceBuilder()
+        .withConfigFilesProvider(() -> Arrays.asList(Paths.get("a.properties"), Paths.get("b.properties")))
+        .build(s3Wrapper);
+    when(s3Wrapper.getFileIfModified("prod/a.properties", null)).thenReturn(s3Object("a=1", "etag-a"));
+    when(s3Wrapper.getFileIfModified("prod/b.properties", null)).thenReturn(s3Object("b=1", "etag-b"));
+    source.init();
+    source.getConfiguration(new ImmutableEnvironment("prod"));
+    when(s3Wrapper.getFileIfModified("prod/b.properties", "etag-b")).thenReturn(s3Object("b=2", "etag-b2"));
+
+    ConfigurationState state = source.getConfiguration(new ImmutableEnvironment("prod"));
+
+    assertThat(state.isStateChanged()).isTrue();
+    assertThat(state.getData().get("b.properties").getProperty("b")).isEqualTo("2");
+    source.close();
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void getConfigurationThrowsWhenAnyFileMissing() throws Exception {
+    S3ConfigurationSource source = new S3ConfigurationSourceBuilder()
+        .withConfigFilesProvider(() -> Arrays.asList(Paths.get("a.properties"), Paths.get("missing.properties")))
+        .build(s3Wrapper);
+    when(s3Wrapper.getFileIfModified("prod/a.properties", null)).thenReturn(s3Object("a=1", "etag-a"));
+    source.init();
+
+    source.getConfiguration(new ImmutableEnvironment("prod"));
+  }
+
   @Test(expected = IllegalStateException.class)
   public void getConfigurationThrowsBeforeInitCalled() throws Exception {
     s3Source.getConfiguration(environment);
   }
+
+  private S3Object s3Object(String content, String eTag) {
+    S3Object s3Object = new S3Object();
+    s3Object.setKey(FILE_NAME);
+    s3Object.setObjectContent(new ByteArrayInputStream(content.getBytes()));
+    ObjectMetadata metadata = new ObjectMetadata();
+    metadata.setHeader(Headers.ETAG, eTag);
+    s3Object.setObjectMetadata(metadata);
+    return s3Object;
+  }
 }